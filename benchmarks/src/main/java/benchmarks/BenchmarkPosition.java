@@ -0,0 +1,102 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Map;
+
+/**
+ * The positions every benchmark runs against, one per phase of the game.
+ */
+public enum BenchmarkPosition {
+    OPENING(ChessGame.TeamColor.WHITE, """
+        |r|n|b|q|k|b|n|r|
+        |p|p|p|p|p|p|p|p|
+        | | | | | | | | |
+        | | | | | | | | |
+        | | | | | | | | |
+        | | | | | | | | |
+        |P|P|P|P|P|P|P|P|
+        |R|N|B|Q|K|B|N|R|
+        """),
+    MIDDLEGAME(ChessGame.TeamColor.WHITE, """
+        |r| | | |k| | |r|
+        |p| |p|p|q|p|b| |
+        |b|n| | |p|n|p| |
+        | | | |P|N| | | |
+        | |p| | |P| | | |
+        | | |N| | |Q| |p|
+        |P|P|P|B|B|P|P|P|
+        |R| | | |K| | |R|
+        """),
+    ENDGAME(ChessGame.TeamColor.WHITE, """
+        | | | | | | | | |
+        | | |p| | | | | |
+        | | | |p| | | | |
+        |K|P| | | | | |r|
+        | |R| | | |p| |k|
+        | | | | | | | | |
+        | | | | |P| |P| |
+        | | | | | | | | |
+        """);
+
+    private static final Map<Character, ChessPiece.PieceType> CHAR_TO_TYPE_MAP = Map.of(
+        'p', ChessPiece.PieceType.PAWN,
+        'n', ChessPiece.PieceType.KNIGHT,
+        'r', ChessPiece.PieceType.ROOK,
+        'q', ChessPiece.PieceType.QUEEN,
+        'k', ChessPiece.PieceType.KING,
+        'b', ChessPiece.PieceType.BISHOP
+    );
+
+    private final ChessGame.TeamColor teamTurn;
+    private final String boardText;
+
+    BenchmarkPosition(ChessGame.TeamColor teamTurn, String boardText) {
+        this.teamTurn = teamTurn;
+        this.boardText = boardText;
+    }
+
+    /**
+     * @return A new game set up at this position.
+     */
+    public ChessGame createGame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard(boardText));
+        game.setTeamTurn(teamTurn);
+        return game;
+    }
+
+    /**
+     * Reads a board drawn one row per line, from row 8 down, with one cell per piece
+     * between pipes. Upper case letters are white pieces and lower case are black.
+     * @param boardText The board drawing.
+     * @return The board.
+     */
+    private static ChessBoard loadBoard(String boardText) {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (char c : boardText.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    column = 1;
+                    row--;
+                }
+                case ' ' -> column++;
+                case '|' -> {
+                }
+                default -> {
+                    ChessGame.TeamColor color = Character.isLowerCase(c) ?
+                        ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                    ChessPiece.PieceType type = CHAR_TO_TYPE_MAP.get(Character.toLowerCase(c));
+                    board.addPiece(new ChessPosition(row, column), new ChessPiece(color, type));
+                    column++;
+                }
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChessBoard#clone()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardCloneBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    private BenchmarkPosition position;
+
+    private ChessBoard board;
+
+    @Setup
+    public void setUp() {
+        board = position.createGame().getBoard();
+    }
+
+    @Benchmark
+    public Object cloneBoard() throws CloneNotSupportedException {
+        return board.clone();
+    }
+}
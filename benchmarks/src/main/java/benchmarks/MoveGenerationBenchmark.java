@@ -0,0 +1,41 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChessGame#validMoves} for every piece of the team to move.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    private BenchmarkPosition position;
+
+    private ChessGame game;
+    private List<ChessPosition> teamPositions;
+
+    @Setup
+    public void setUp() {
+        game = position.createGame();
+        teamPositions = new ArrayList<>(game.getBoard().getAllTeamPositions(game.getTeamTurn()));
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition teamPosition : teamPositions) {
+            blackhole.consume(game.validMoves(teamPosition));
+        }
+    }
+}
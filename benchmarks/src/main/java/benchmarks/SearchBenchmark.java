@@ -0,0 +1,56 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to depth for the engine on each benchmark position, so that runs with
+ * different thread counts show how well the Lazy SMP search scales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    private BenchmarkPosition position;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"6"})
+    private int depth;
+
+    private ChessGame game;
+    private ParallelSearch search;
+
+    @Setup
+    public void setUp() {
+        game = position.createGame();
+        search = new ParallelSearch(threads, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        // every invocation should search from scratch
+        search.clearTable();
+    }
+
+    @Benchmark
+    public SearchResult searchToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+}
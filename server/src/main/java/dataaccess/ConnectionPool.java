@@ -0,0 +1,364 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded pool of database connections, so each DAO call does not pay for a new TCP
+ * connection and login.
+ * <p>
+ * At most {@code maxSize} connections are open at once; callers past that wait up to
+ * {@code maxWaitMillis} for one to be returned. The connections handed out are proxies
+ * whose {@link Connection#close()} returns the real connection to the pool, so callers
+ * use them with try-with-resources exactly as they would an unpooled connection.
+ * <p>
+ * A connection that has sat idle for a while is checked with {@link Connection#isValid}
+ * before it is handed out, and replaced if the server has dropped it. A background thread
+ * closes connections idle longer than {@code idleTimeoutMillis}, down to {@code minSize},
+ * and opens new ones to keep at least {@code minSize} around.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection to the database.
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * A point-in-time view of the pool's load.
+     */
+    public record Metrics(int open, int idle, int active, int waiting, long borrowed, long timeouts,
+                          long created, long closed, double averageWaitMillis, long maxWaitMillis) {
+    }
+
+    /**
+     * Idle connections used more recently than this are trusted without a round trip to check them.
+     */
+    private static final long VALIDATION_INTERVAL_MILLIS = 1000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final LongSupplier clock;
+
+    /**
+     * One permit per connection that may still be handed out.
+     */
+    private final Semaphore permits;
+    /**
+     * Most recently returned connections first, so the least used ones age out at the end.
+     */
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private record IdleConnection(Connection connection, long returnedAt) {
+    }
+
+    /**
+     * @param factory Opens the pool's connections.
+     * @param minSize The number of connections kept open even when idle.
+     * @param maxSize The most connections open at once.
+     * @param maxWaitMillis How long {@link #getConnection()} waits for a connection before failing.
+     * @param idleTimeoutMillis How long a connection beyond the minimum may sit idle before it is closed.
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long maxWaitMillis,
+                          long idleTimeoutMillis) {
+        this(factory, minSize, maxSize, maxWaitMillis, idleTimeoutMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a pool that reads the time from the given clock instead of the system's.
+     * @param clock The current time in milliseconds, used to age idle connections.
+     */
+    ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long maxWaitMillis,
+                   long idleTimeoutMillis, LongSupplier clock) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid connection pool size: " + minSize + " to " + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.clock = clock;
+        permits = new Semaphore(maxSize, true);
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, idleTimeoutMillis / 2);
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting for one to be returned if the pool is at its maximum size.
+     * @return A connection to close when done with it, which returns it to the pool.
+     * @throws SQLException if no connection could be had in time or a new one could not be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection.");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        finally {
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            waits.incrementAndGet();
+        }
+
+        try {
+            Connection connection = takeIdleConnection();
+            if (connection == null) {
+                openCount.incrementAndGet();
+                connection = openReservedConnection();
+            }
+            borrowed.incrementAndGet();
+            return wrap(connection);
+        }
+        catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The current load on the pool
+     */
+    public Metrics getMetrics() {
+        long waitCount = waits.get();
+        int idle = idleConnections.size();
+        int open = openCount.get();
+        return new Metrics(
+                open,
+                idle,
+                Math.max(0, open - idle),
+                permits.getQueueLength(),
+                borrowed.get(),
+                timeouts.get(),
+                created.get(),
+                closedCount.get(),
+                waitCount == 0 ? 0 : totalWaitNanos.get() / 1e6 / waitCount,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get())
+        );
+    }
+
+    /**
+     * Closes every idle connection and stops the pool. Connections still borrowed are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            closeQuietly(idle.connection());
+        }
+    }
+
+    /**
+     * @return A usable idle connection, or null if there is none.
+     */
+    private Connection takeIdleConnection() {
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            if (clock.getAsLong() - idle.returnedAt() < VALIDATION_INTERVAL_MILLIS
+                    || isValid(idle.connection())) {
+                return idle.connection();
+            }
+            closeQuietly(idle.connection());
+        }
+        return null;
+    }
+
+    /**
+     * Opens a connection whose place in {@link #openCount} the caller has already reserved,
+     * giving the place back if the connection cannot be opened.
+     */
+    private Connection openReservedConnection() throws SQLException {
+        try {
+            Connection connection = factory.open();
+            created.incrementAndGet();
+            return connection;
+        }
+        catch (SQLException | RuntimeException e) {
+            openCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes back a connection from a caller, unless it is broken or the pool has closed.
+     */
+    private void release(Connection connection) {
+        try {
+            boolean reusable = !closed && !connection.isClosed();
+            if (reusable && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (reusable) {
+                idleConnections.offerFirst(new IdleConnection(connection, clock.getAsLong()));
+            }
+            else {
+                closeQuietly(connection);
+            }
+        }
+        catch (SQLException e) {
+            closeQuietly(connection);
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle too long and tops the pool back up to its minimum.
+     * Runs on the maintenance thread.
+     */
+    void maintain() {
+        long cutoff = clock.getAsLong() - idleTimeoutMillis;
+        Iterator<IdleConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && openCount.get() > minSize) {
+            IdleConnection idle = oldestFirst.next();
+            if (idle.returnedAt() >= cutoff) {
+                break;
+            }
+            if (idleConnections.removeLastOccurrence(idle)) {
+                closeQuietly(idle.connection());
+            }
+        }
+        try {
+            while (!closed && permits.tryAcquire()) {
+                try {
+                    // reserve the place first, so a borrower opening at the same time cannot overshoot
+                    if (openCount.getAndUpdate(open -> open < minSize ? open + 1 : open) >= minSize) {
+                        break;
+                    }
+                    idleConnections.offerLast(new IdleConnection(openReservedConnection(), clock.getAsLong()));
+                }
+                finally {
+                    permits.release();
+                }
+            }
+        }
+        catch (SQLException e) {
+            // the database may not be up yet; try again on the next run
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        openCount.decrementAndGet();
+        closedCount.incrementAndGet();
+        try {
+            connection.close();
+        }
+        catch (SQLException e) {
+            // already unusable, nothing more to do
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new PooledConnectionHandler(connection)
+        );
+    }
+
+    /**
+     * Forwards calls to a borrowed connection, except that closing it returns it to the pool
+     * and any later use fails as it would on a closed connection.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned;
+
+        PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(connection);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + connection;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has been returned to the pool.");
+                    }
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
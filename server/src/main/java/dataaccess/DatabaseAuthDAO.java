@@ -51,19 +51,58 @@ public class DatabaseAuthDAO implements AuthDAO {
         DatabaseManager.executeUpdate(statement, authData.authToken(), authData.username());
     }
 
+    // tokens are UUID strings, so a fixed-width binary-collated column indexes compactly
     private static final String CREATE_STATEMENT = """
             CREATE TABLE IF NOT EXISTS auth (
                 `id` int PRIMARY KEY NOT NULL AUTO_INCREMENT,
-                `token` TEXT NOT NULL,
-                `username` VARCHAR(256) NOT NULL
+                `token` CHAR(36) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+                `username` VARCHAR(256) NOT NULL,
+                UNIQUE INDEX `auth_token` (`token`),
+                INDEX `auth_username` (`username`)
             )
         """;
 
+    // tokens that could not have come from UserService and do not fit the new column
+    private static final String DELETE_INVALID_STATEMENT = """
+            DELETE FROM auth WHERE CHAR_LENGTH(`token`) > 36 OR CHAR_LENGTH(`token`) <> LENGTH(`token`)
+        """;
+
+    // keeps the oldest session for each token, so the unique index can be built
+    private static final String DELETE_DUPLICATES_STATEMENT = """
+            DELETE newer FROM auth newer
+            JOIN auth older ON CAST(older.`token` AS BINARY) = CAST(newer.`token` AS BINARY) AND older.`id` < newer.`id`
+        """;
+
+    // auth tables from before tokens were indexed store them as unindexed TEXT
+    private static final String MIGRATE_STATEMENT = """
+            ALTER TABLE auth
+                MODIFY `token` CHAR(36) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+                ADD UNIQUE INDEX `auth_token` (`token`),
+                ADD INDEX `auth_username` (`username`)
+        """;
+
+    private static final String TOKEN_TYPE_STATEMENT = """
+            SELECT DATA_TYPE FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'auth' AND COLUMN_NAME = 'token'
+        """;
+
     private void configureDatabase() throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
             try (var preparedStatement = conn.prepareStatement(CREATE_STATEMENT)) {
                 preparedStatement.execute();
             }
+            boolean textToken;
+            try (var preparedStatement = conn.prepareStatement(TOKEN_TYPE_STATEMENT);
+                 var resultSet = preparedStatement.executeQuery()) {
+                textToken = resultSet.next() && resultSet.getString(1).equalsIgnoreCase("text");
+            }
+            if (textToken) {
+                for (String statement : new String[] {DELETE_INVALID_STATEMENT, DELETE_DUPLICATES_STATEMENT, MIGRATE_STATEMENT}) {
+                    try (var preparedStatement = conn.prepareStatement(statement)) {
+                        preparedStatement.execute();
+                    }
+                }
+            }
         } catch (SQLException ex) {
             throw new DataAccessException("Unable to configure database for auth." + ex.getMessage(), ex);
         }
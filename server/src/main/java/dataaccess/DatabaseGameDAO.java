@@ -1,60 +1,111 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.Move;
 import com.google.gson.Gson;
 import model.GameData;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Stores games in MySQL. A game's row holds a snapshot of it, and each move made since
+ * the snapshot is a small row in the {@code game_move} log, so a move does not rewrite
+ * the whole game. Reading a game replays its logged moves onto the snapshot. Every
+ * {@link #SNAPSHOT_INTERVAL} plies, and when the game ends, a move writes a new snapshot
+ * and clears the log instead. Several moves made together are logged in one round trip.
+ * <p>
+ * Moves are only stored if the stored game is still at the ply they were made from, and
+ * logged moves are checked to be legal as they are replayed.
+ */
 public class DatabaseGameDAO implements GameDAO {
 
+    /**
+     * The most moves logged after a game's snapshot before a new snapshot is written.
+     */
+    static final int SNAPSHOT_INTERVAL = 16;
+
     public DatabaseGameDAO() throws DataAccessException {
         configureDatabase();
     }
 
     @Override
     public void clear() throws DataAccessException {
-        String statement = "TRUNCATE game";
-        DatabaseManager.executeUpdate(statement);
+        DatabaseManager.executeUpdate("TRUNCATE game_move");
+        DatabaseManager.executeUpdate("TRUNCATE game");
     }
 
     @Override
     public int createGame(GameData gameData) throws DataAccessException {
-        String statement = "INSERT INTO game (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+        String statement = """
+            INSERT INTO game (whiteUsername, blackUsername, gameName, game, snapshotPly)
+            VALUES (?, ?, ?, ?, ?)
+            """;
         return DatabaseManager.executeUpdate(
             statement,
             gameData.whiteUsername(),
             gameData.blackUsername(),
             gameData.gameName(),
-            serializeGame(gameData.game())
+            serializeGame(gameData.game()),
+            plyCount(gameData.game())
         );
     }
 
     @Override
     public GameData getGame(int id) throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            String statement = "SELECT id, whiteUsername, blackUsername, gameName, game FROM game WHERE id = ?";
+            String statement = """
+                SELECT id, whiteUsername, blackUsername, gameName, game, snapshotPly FROM game WHERE id = ?
+                """;
+            GameData game;
+            int snapshotPly;
             try (PreparedStatement ps = conn.prepareStatement(statement)) {
                 ps.setInt(1, id);
                 try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readGame(rs);
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    game = readGame(rs);
+                    snapshotPly = rs.getInt(6);
+                }
+            }
+            String movesStatement = "SELECT ply, move FROM game_move WHERE gameId = ? AND ply >= ? ORDER BY ply";
+            try (PreparedStatement ps = conn.prepareStatement(movesStatement)) {
+                ps.setInt(1, id);
+                ps.setInt(2, snapshotPly);
+                try (ResultSet rs = ps.executeQuery()) {
+                    int[] legalMoves = new int[Move.MAX_MOVES];
+                    int ply = snapshotPly;
+                    while (rs.next()) {
+                        replayMove(game.game(), ply++, rs.getInt(1), rs.getInt(2), legalMoves);
+                    }
+                    if (ply != snapshotPly) {
+                        game.game().publishSnapshot();
                     }
                 }
             }
+            return game;
         } catch (SQLException ex) {
             throw new DataAccessException("Error getting game: " + ex.getMessage());
         }
-        return null;
     }
 
     private GameData readGame(ResultSet resultSet) throws SQLException {
-        ChessGame chessGame = deserializeGame(resultSet.getString(5));
+        ChessGame chessGame = deserializeGame(resultSet.getBytes(5));
         return new GameData(
             resultSet.getInt(1),
             resultSet.getString(2),
@@ -66,27 +117,53 @@ public class DatabaseGameDAO implements GameDAO {
 
     @Override
     public Collection<GameData> getGames() throws DataAccessException {
-        ArrayList<GameData> list = new ArrayList<>();
+        Map<Integer, GameData> games = new LinkedHashMap<>();
         try (Connection conn = DatabaseManager.getConnection()) {
-            String statement = "SELECT id, whiteUsername, blackUsername, gameName, game FROM game";
+            Map<Integer, Integer> nextPlies = new HashMap<>();
+            Set<GameData> replayed = Collections.newSetFromMap(new IdentityHashMap<>());
+            String statement = "SELECT id, whiteUsername, blackUsername, gameName, game, snapshotPly FROM game";
             try (PreparedStatement ps = conn.prepareStatement(statement)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        list.add(readGame(rs));
+                        GameData game = readGame(rs);
+                        games.put(game.gameId(), game);
+                        nextPlies.put(game.gameId(), rs.getInt(6));
                     }
                 }
             }
+            String movesStatement = """
+                SELECT m.gameId, m.ply, m.move FROM game_move m JOIN game g ON g.id = m.gameId
+                WHERE m.ply >= g.snapshotPly
+                ORDER BY m.gameId, m.ply
+                """;
+            try (PreparedStatement ps = conn.prepareStatement(movesStatement)) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    int[] legalMoves = new int[Move.MAX_MOVES];
+                    while (rs.next()) {
+                        int gameId = rs.getInt(1);
+                        GameData game = games.get(gameId);
+                        if (game != null) {
+                            int ply = nextPlies.merge(gameId, 1, Integer::sum) - 1;
+                            replayMove(game.game(), ply, rs.getInt(2), rs.getInt(3), legalMoves);
+                            replayed.add(game);
+                        }
+                    }
+                }
+            }
+            for (GameData game : replayed) {
+                game.game().publishSnapshot();
+            }
         } catch (SQLException ex) {
             throw new DataAccessException("Error getting game list: " + ex.getMessage());
         }
-        return list;
+        return new ArrayList<>(games.values());
     }
 
     @Override
     public void updateGame(int gameId, GameData gameData) throws DataAccessException {
         String statement = """
             UPDATE game
-            SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?
+            SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?, snapshotPly = ?
             WHERE id = ?
             """;
         DatabaseManager.executeUpdate(
@@ -95,8 +172,119 @@ public class DatabaseGameDAO implements GameDAO {
             gameData.blackUsername(),
             gameData.gameName(),
             serializeGame(gameData.game()),
+            plyCount(gameData.game()),
             gameId
         );
+        clearMoveLog(gameId);
+    }
+
+    @Override
+    public void addMoves(int gameId, ChessGame game, List<ChessMove> moves) throws DataAccessException {
+        int ply = plyCount(game);
+        int firstPly = ply - moves.size();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // locks the game's row, so moves made at the same time are stored one after the other
+                checkNextPly(conn, gameId, firstPly);
+                if (game.getGameOver() || ply / SNAPSHOT_INTERVAL != firstPly / SNAPSHOT_INTERVAL) {
+                    String statement = "UPDATE game SET game = ?, snapshotPly = ? WHERE id = ?";
+                    try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                        ps.setBytes(1, serializeGame(game));
+                        ps.setInt(2, ply);
+                        ps.setInt(3, gameId);
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement("DELETE FROM game_move WHERE gameId = ?")) {
+                        ps.setInt(1, gameId);
+                        ps.executeUpdate();
+                    }
+                } else {
+                    List<Object[]> rows = new ArrayList<>(moves.size());
+                    for (int i = 0; i < moves.size(); i++) {
+                        rows.add(new Object[] {gameId, firstPly + i, Move.fromChessMove(moves.get(i))});
+                    }
+                    DatabaseManager.executeBatch(conn, "INSERT INTO game_move (gameId, ply, move) VALUES (?, ?, ?)", rows);
+                }
+                conn.commit();
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error adding move: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Checks that the stored game is still in progress and that its next move is at the
+     * given ply, so moves made from a stale copy of the game are not stored.
+     * @throws DataAccessException if the game is missing, over, or at another ply.
+     */
+    private void checkNextPly(Connection conn, int gameId, int expectedPly) throws SQLException, DataAccessException {
+        int nextPly;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT game, snapshotPly FROM game WHERE id = ? FOR UPDATE")) {
+            ps.setInt(1, gameId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new DataAccessException("Game with id " + gameId + " doesn't exist");
+                }
+                if (isGameOver(rs.getBytes(1))) {
+                    throw new DataAccessException("Game with id " + gameId + " is already over");
+                }
+                nextPly = rs.getInt(2);
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(ply) FROM game_move WHERE gameId = ? AND ply >= ?")) {
+            ps.setInt(1, gameId);
+            ps.setInt(2, nextPly);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    nextPly = rs.getInt(1) + 1;
+                }
+            }
+        }
+        if (nextPly != expectedPly) {
+            throw new DataAccessException("Game with id " + gameId + " is at ply " + nextPly + ", not " + expectedPly);
+        }
+    }
+
+    /**
+     * Plays a logged move onto a game read from the database. Callers publish the game's
+     * snapshot once all its moves are replayed.
+     * @throws SQLException if the move is out of order or not legal in the game, meaning the log is corrupt.
+     */
+    private static void replayMove(ChessGame game, int expectedPly, int ply, int move, int[] legalMoves)
+            throws SQLException {
+        if (ply != expectedPly) {
+            throw new SQLException("Move log skips from ply " + expectedPly + " to " + ply);
+        }
+        int count = game.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (Move.sameMove(legalMoves[i], move)) {
+                game.doMove(legalMoves[i]);
+                return;
+            }
+        }
+        throw new SQLException("Logged move at ply " + ply + " is not legal");
+    }
+
+    /**
+     * Deletes the moves a game's new snapshot already includes. Reads skip moves from
+     * before the snapshot anyway, so a failure here leaves the game readable.
+     */
+    private void clearMoveLog(int gameId) throws DataAccessException {
+        DatabaseManager.executeUpdate("DELETE FROM game_move WHERE gameId = ?", gameId);
+    }
+
+    /**
+     * @return The number of plies played to reach the game's position, used to order its moves.
+     */
+    private static int plyCount(ChessGame game) {
+        int blackToMove = game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0;
+        return (game.getFullmoveNumber() - 1) * 2 + blackToMove;
     }
 
     private static final String CREATE_STATEMENT = """
@@ -105,27 +293,99 @@ public class DatabaseGameDAO implements GameDAO {
             `whiteUsername` VARCHAR(256),
             `blackUsername` VARCHAR(256),
             `gameName` VARCHAR(256) NOT NULL,
-            `game` TEXT NOT NULL
+            `game` BLOB NOT NULL,
+            `snapshotPly` int NOT NULL DEFAULT 0
         )
         """;
 
+    private static final String CREATE_MOVE_STATEMENT = """
+        CREATE TABLE IF NOT EXISTS game_move (
+            `gameId` int NOT NULL,
+            `ply` int NOT NULL,
+            `move` SMALLINT NOT NULL,
+            PRIMARY KEY (`gameId`, `ply`)
+        )
+        """;
+
+    private static final String COLUMN_TYPE_STATEMENT = """
+        SELECT DATA_TYPE FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = ?
+        """;
+
     private void configureDatabase() throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(CREATE_STATEMENT)) {
-                ps.execute();
+            for (String statement : new String[] {CREATE_STATEMENT, CREATE_MOVE_STATEMENT}) {
+                try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                    ps.execute();
+                }
+            }
+            if ("text".equalsIgnoreCase(columnType(conn, "game"))) {
+                String statement = "ALTER TABLE game MODIFY `game` BLOB NOT NULL";
+                try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                    ps.execute();
+                }
+            }
+            // also finishes a conversion that stopped after the column was altered
+            migrateJsonGames(conn);
+            if (columnType(conn, "snapshotPly") == null) {
+                String statement = "ALTER TABLE game ADD COLUMN `snapshotPly` int NOT NULL DEFAULT 0";
+                try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                    ps.execute();
+                }
             }
         } catch (SQLException ex) {
             throw new DataAccessException("Error configuring game table: " + ex.getMessage());
         }
     }
 
-    private ChessGame deserializeGame(String gameString) {
-        Gson gson = new Gson();
-        return gson.fromJson(gameString, ChessGame.class);
+    /**
+     * @return The type of a column of the game table, or null if it has no such column.
+     */
+    private String columnType(Connection conn, String column) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(COLUMN_TYPE_STATEMENT)) {
+            ps.setString(1, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
     }
 
-    private String serializeGame(ChessGame game) {
+    /**
+     * Converts games stored as JSON text, from before games were stored with {@link GameCodec}.
+     * Encoded games never start with {@code '{'}, so rows already converted are left alone.
+     */
+    private void migrateJsonGames(Connection conn) throws SQLException {
         Gson gson = new Gson();
-        return gson.toJson(game);
+        String select = "SELECT id, game FROM game WHERE game LIKE '{%'";
+        List<Object[]> updates = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(select);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String json = new String(rs.getBytes(2), StandardCharsets.UTF_8);
+                updates.add(new Object[] {serializeGame(gson.fromJson(json, ChessGame.class)), rs.getInt(1)});
+            }
+        }
+        // on the connection already held, so a pool of one connection cannot deadlock here
+        DatabaseManager.executeBatch(conn, "UPDATE game SET game = ? WHERE id = ?", updates);
+    }
+
+    private ChessGame deserializeGame(byte[] gameData) throws SQLException {
+        try {
+            return GameCodec.decode(gameData);
+        } catch (IllegalArgumentException ex) {
+            throw new SQLException("Unreadable game: " + ex.getMessage(), ex);
+        }
+    }
+
+    private boolean isGameOver(byte[] gameData) throws SQLException {
+        try {
+            return GameCodec.isGameOver(gameData);
+        } catch (IllegalArgumentException ex) {
+            throw new SQLException("Unreadable game: " + ex.getMessage(), ex);
+        }
+    }
+
+    private byte[] serializeGame(ChessGame game) {
+        return GameCodec.encode(game);
     }
 }
@@ -1,13 +1,22 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.List;
 import java.util.Properties;
 
 public class DatabaseManager {
+    /*
+     * Prepare statements on the server and cache them per connection, so pooled connections
+     * reuse them, and send batches of inserts as one multi-row statement.
+     */
+    private static final String CONNECTION_OPTIONS = "useServerPrepStmts=true&cachePrepStmts=true"
+        + "&prepStmtCacheSize=256&prepStmtCacheSqlLimit=2048&rewriteBatchedStatements=true";
+
     private static String databaseName;
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,9 +39,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrow a connection to the database from the connection pool. Pooled
+     * connections have their catalog set based upon the properties specified in
+     * db.properties. Connections to the database should be short-lived, and you
+     * must close the connection when you are done with it, which returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -44,14 +54,25 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool.getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * @return The current load on the connection pool
+     */
+    public static ConnectionPool.Metrics getPoolMetrics() {
+        return pool.getMetrics();
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -72,25 +93,33 @@ public class DatabaseManager {
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        connectionUrl = String.format("jdbc:mysql://%s:%d?%s", host, port, CONNECTION_OPTIONS);
+
+        pool = new ConnectionPool(
+            DatabaseManager::openConnection,
+            Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+            Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+            Long.parseLong(props.getProperty("db.pool.maxWaitMillis", "5000")),
+            Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "60000"))
+        );
     }
 
     static int executeUpdate(String statement, Object... params) throws DataAccessException {
+        // only inserts have keys to return, and asking for them on other statements costs a round trip
+        boolean insert = statement.stripLeading().regionMatches(true, 0, "INSERT", 0, 6);
+        int keys = insert ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS;
         try (Connection conn = getConnection()) {
-            try (var preparedStatement = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
-                for (int i = 0; i < params.length; i++) {
-                    Object param = params[i];
-                    switch (param) {
-                        case String p -> preparedStatement.setString(i + 1, p);
-                        case Integer p -> preparedStatement.setInt(i + 1, p);
-                        case null, default -> preparedStatement.setNull(i + 1, Types.NULL);
-                    }
-                }
+            try (var preparedStatement = conn.prepareStatement(statement, keys)) {
+                bindParameters(preparedStatement, params);
                 preparedStatement.executeUpdate();
+                if (!insert) {
+                    return 0;
+                }
 
-                ResultSet results = preparedStatement.getGeneratedKeys();
-                if (results.next()) {
-                    return results.getInt(1);
+                try (ResultSet results = preparedStatement.getGeneratedKeys()) {
+                    if (results.next()) {
+                        return results.getInt(1);
+                    }
                 }
 
                 return 0;
@@ -99,4 +128,67 @@ public class DatabaseManager {
             throw new DataAccessException("Error while executing database update: " + ex.getMessage());
         }
     }
+
+    /**
+     * Runs one statement for each set of parameters in a single transaction. Inserts
+     * are sent to the server as one multi-row statement.
+     *
+     * @return The total number of rows changed
+     */
+    static int executeBatch(String statement, List<Object[]> paramRows) throws DataAccessException {
+        if (paramRows.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int total = executeBatch(conn, statement, paramRows);
+                conn.commit();
+                return total;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error while executing database batch: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Runs one statement for each set of parameters on a connection the caller already
+     * holds, as part of whatever transaction the caller has open on it.
+     *
+     * @return The total number of rows changed
+     */
+    static int executeBatch(Connection conn, String statement, List<Object[]> paramRows) throws SQLException {
+        if (paramRows.isEmpty()) {
+            return 0;
+        }
+        try (var preparedStatement = conn.prepareStatement(statement)) {
+            for (Object[] params : paramRows) {
+                bindParameters(preparedStatement, params);
+                preparedStatement.addBatch();
+            }
+            int total = 0;
+            for (int count : preparedStatement.executeBatch()) {
+                // rewritten batches report SUCCESS_NO_INFO for each row
+                total += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+            return total;
+        }
+    }
+
+    private static void bindParameters(PreparedStatement preparedStatement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            switch (param) {
+                case String p -> preparedStatement.setString(i + 1, p);
+                case Integer p -> preparedStatement.setInt(i + 1, p);
+                case byte[] p -> preparedStatement.setBytes(i + 1, p);
+                case null, default -> preparedStatement.setNull(i + 1, Types.NULL);
+            }
+        }
+    }
 }
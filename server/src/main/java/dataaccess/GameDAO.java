@@ -1,8 +1,11 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface GameDAO {
     public void clear() throws DataAccessException;
@@ -14,4 +17,22 @@ public interface GameDAO {
     public Collection<GameData> getGames() throws DataAccessException;
 
     public void updateGame(int gameId, GameData gameData) throws DataAccessException;
+
+    /**
+     * Records a move that was just made in a game, without rewriting the rest of the game.
+     * @param gameId The game the move was made in.
+     * @param game The game, with the move already made.
+     * @param move The move.
+     */
+    public default void addMove(int gameId, ChessGame game, ChessMove move) throws DataAccessException {
+        addMoves(gameId, game, List.of(move));
+    }
+
+    /**
+     * Records several moves that were just made in a game, in the order they were made.
+     * @param gameId The game the moves were made in.
+     * @param game The game, with the moves already made.
+     * @param moves The moves, oldest first.
+     */
+    public void addMoves(int gameId, ChessGame game, List<ChessMove> moves) throws DataAccessException;
 }
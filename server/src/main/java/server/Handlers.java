@@ -73,6 +73,14 @@ public class Handlers {
         ctx.json(serialize(result));
     }
 
+    public void computerMetricsHandler(Context ctx) {
+        ctx.json(new Gson().toJson(wsHandler.getComputerMetrics()));
+    }
+
+    public void databaseMetricsHandler(Context ctx) {
+        ctx.json(new Gson().toJson(DatabaseManager.getPoolMetrics()));
+    }
+
     public void authorizeHandler(Context ctx) throws ResponseException {
         String username = userService.authorize(ctx.header("Authorization"));
         ctx.attribute("user", username);
@@ -35,6 +35,10 @@ public class Server {
         javalin.post("/game", handlers::createGameHandler);
         javalin.get("/game", handlers::listGamesHandler);
         javalin.put("/game", handlers::joinGameHandler);
+        javalin.get("/computer", ctx -> {
+            handlers.authorizeHandler(ctx);
+            handlers.computerMetricsHandler(ctx);
+        });
         javalin.ws("/ws", ws -> {
             ws.onConnect(wsHandler);
             ws.onMessage(wsHandler);
@@ -42,6 +46,10 @@ public class Server {
         });
 
         javalin.delete("/db", handlers::clearHandler);
+        javalin.get("/db", ctx -> {
+            handlers.authorizeHandler(ctx);
+            handlers.databaseMetricsHandler(ctx);
+        });
 
         javalin.exception(ResponseException.class, handlers::responseExceptionHandler);
         javalin.exception(Exception.class, handlers::generalExceptionHandler);
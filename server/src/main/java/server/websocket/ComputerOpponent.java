@@ -0,0 +1,213 @@
+package server.websocket;
+
+import chess.BoardSnapshot;
+import chess.ChessMove;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs engine searches for games against the computer on a fixed pool of worker threads
+ * with a bounded queue, so a burst of computer games waits its turn instead of tying up
+ * the threads that handle requests and WebSocket messages.
+ * <p>
+ * Each game gets a total thinking time budget, spread over its moves. A game has at most
+ * one search queued or running at a time. Budgets are kept for the most recently searched
+ * {@link #MAX_TRACKED_GAMES} games, so abandoned games do not pile up; a game that is
+ * forgotten starts over with a full budget.
+ */
+public class ComputerOpponent {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final long DEFAULT_GAME_BUDGET_MILLIS = 5 * 60 * 1000;
+    public static final int MAX_TRACKED_GAMES = 10_000;
+
+    private static final long MIN_MOVE_MILLIS = 100;
+    private static final long MAX_MOVE_MILLIS = 5000;
+
+    /**
+     * Roughly how many more moves a game is expected to last, for spreading its budget.
+     */
+    private static final int EXPECTED_MOVES_LEFT = 30;
+
+    /**
+     * Called on a worker thread with the move the engine chose, or when it could not choose one.
+     */
+    public interface MoveListener {
+        /**
+         * @param gameID The game the move is for.
+         * @param positionKey The {@link chess.ChessGame#getZobristKey()} of the searched position,
+         *                    to check that the game has not moved on since.
+         * @param move The engine's move.
+         */
+        void onMove(int gameID, long positionKey, ChessMove move);
+
+        /**
+         * @param gameID The game whose search failed or found no move.
+         * @param cause What went wrong, or null if the search simply found no move.
+         */
+        default void onFailure(int gameID, RuntimeException cause) {
+        }
+    }
+
+    /**
+     * A point-in-time view of the worker pool's load.
+     */
+    public record Metrics(int workers, int queued, int active, long submitted, long rejected, long completed,
+                          long failed, double averageQueueWaitMillis, long maxQueueWaitMillis,
+                          double averageSearchMillis) {
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final long gameBudgetMillis;
+    private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(Engine::new);
+    private final Map<Integer, Long> remainingBudgets = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                    return size() > MAX_TRACKED_GAMES;
+                }
+            });
+    private final Set<Integer> pendingGames = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalQueueWaitMillis = new AtomicLong();
+    private final AtomicLong maxQueueWaitMillis = new AtomicLong();
+    private final AtomicLong totalSearchMillis = new AtomicLong();
+
+    /**
+     * Creates a computer opponent with half the machine's cores as workers and default limits.
+     */
+    public ComputerOpponent() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_GAME_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param workers The number of searches that can run at once.
+     * @param queueCapacity The number of searches that can wait for a worker before more are turned away.
+     * @param gameBudgetMillis The total time the engine may think over one game.
+     */
+    public ComputerOpponent(int workers, int queueCapacity, long gameBudgetMillis) {
+        this.gameBudgetMillis = gameBudgetMillis;
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory());
+    }
+
+    /**
+     * Queues a search for the computer's move in a game.
+     * @param gameID The game to move in.
+     * @param position The position to search.
+     * @param listener Told the chosen move once the search finishes.
+     * @return False if the queue is full and the search was turned away. A game that
+     * already has a search pending is left alone and counts as queued.
+     */
+    public boolean requestMove(int gameID, BoardSnapshot position, MoveListener listener) {
+        if (!pendingGames.add(gameID)) {
+            return true;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> search(gameID, position, listener, queuedAt));
+            submitted.incrementAndGet();
+            return true;
+        }
+        catch (RejectedExecutionException e) {
+            pendingGames.remove(gameID);
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Forgets a game's remaining budget, once it has ended or its player has left.
+     * @param gameID The game.
+     */
+    public void forgetGame(int gameID) {
+        remainingBudgets.remove(gameID);
+    }
+
+    /**
+     * @return The current load on the worker pool
+     */
+    public Metrics getMetrics() {
+        long done = completed.get() + failed.get();
+        return new Metrics(
+                executor.getCorePoolSize(),
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                submitted.get(),
+                rejected.get(),
+                completed.get(),
+                failed.get(),
+                done == 0 ? 0 : (double) totalQueueWaitMillis.get() / done,
+                maxQueueWaitMillis.get(),
+                completed.get() == 0 ? 0 : (double) totalSearchMillis.get() / completed.get()
+        );
+    }
+
+    /**
+     * Stops the workers, abandoning any queued searches.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void search(int gameID, BoardSnapshot position, MoveListener listener, long queuedAt) {
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt);
+        totalQueueWaitMillis.addAndGet(waited);
+        maxQueueWaitMillis.accumulateAndGet(waited, Math::max);
+        SearchResult result = null;
+        RuntimeException failure = null;
+        try {
+            long remaining = remainingBudgets.getOrDefault(gameID, gameBudgetMillis);
+            long moveTime = Math.clamp(remaining / EXPECTED_MOVES_LEFT, MIN_MOVE_MILLIS, MAX_MOVE_MILLIS);
+            result = engines.get().search(position.toGame(), SearchLimits.time(moveTime));
+            remainingBudgets.put(gameID, Math.max(0, remaining - result.timeMillis()));
+            totalSearchMillis.addAndGet(result.timeMillis());
+            completed.incrementAndGet();
+        }
+        catch (RuntimeException e) {
+            failed.incrementAndGet();
+            failure = e;
+        }
+        finally {
+            // let the game request its next move before this one is played, so a reply
+            // that arrives while the move is being broadcast is not turned away
+            pendingGames.remove(gameID);
+        }
+        if (result != null && result.bestMove() != null) {
+            listener.onMove(gameID, position.getZobristKey(), result.bestMove());
+        }
+        else {
+            listener.onFailure(gameID, failure);
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "computer-opponent-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -5,46 +5,41 @@ import sharedutil.JSONTranslator;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConnectionManager {
     private final Map<Integer, Set<Session>> sessionMap;
     private final JSONTranslator translator;
 
     public ConnectionManager() {
-        sessionMap = new HashMap<>();
+        // computer opponent moves are broadcast from worker threads
+        sessionMap = new ConcurrentHashMap<>();
         translator = new JSONTranslator();
     }
 
     public void addSession(int gameID, Session session) {
-        if (!sessionMap.containsKey(gameID)) {
-            sessionMap.put(gameID, new HashSet<>());
-        }
-        sessionMap.get(gameID).add(session);
+        sessionMap.computeIfAbsent(gameID, id -> ConcurrentHashMap.newKeySet()).add(session);
     }
 
     public void removeSession(int gameID, Session session) {
-        if (!sessionMap.containsKey(gameID)) {
-            return;
-        }
-        sessionMap.get(gameID).remove(session);
-        if (sessionMap.get(gameID).isEmpty()) {
-            sessionMap.remove(gameID);
-        }
+        sessionMap.computeIfPresent(gameID, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
     }
 
     public void broadcast(int gameID, Session excludeSession, ServerMessage message) throws IOException {
-        if (!sessionMap.containsKey(gameID)) {
+        Set<Session> sessions = sessionMap.get(gameID);
+        if (sessions == null) {
             return;
         }
         String msg = translator.toJson(message);
-        for (Session session : sessionMap.get(gameID)) {
+        for (Session session : sessions) {
             if (session.isOpen()) {
                 if (!session.equals(excludeSession)) {
-                    session.getRemote().sendString(msg);
+                    send(session, msg);
                 }
             }
         }
@@ -53,6 +48,13 @@ public class ConnectionManager {
     public void messageSession(Session session, ServerMessage message) throws IOException {
         String msg = translator.toJson(message);
         if (session.isOpen()) {
+            send(session, msg);
+        }
+    }
+
+    private void send(Session session, String msg) throws IOException {
+        // a session's blocking sends must not overlap
+        synchronized (session) {
             session.getRemote().sendString(msg);
         }
     }
@@ -33,12 +33,29 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
     private final JSONTranslator translator;
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
+    private final ComputerOpponent computer;
+    private final ComputerOpponent.MoveListener computerListener = new ComputerOpponent.MoveListener() {
+        @Override
+        public void onMove(int gameID, long positionKey, ChessMove move) {
+            playComputerMove(gameID, positionKey, move);
+        }
+
+        @Override
+        public void onFailure(int gameID, RuntimeException cause) {
+            reportComputerError(gameID);
+        }
+    };
 
     public WebSocketHandler(AuthDAO authDAO, GameDAO gameDAO) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
         connections = new ConnectionManager();
         translator = new JSONTranslator();
+        computer = new ComputerOpponent();
+    }
+
+    public ComputerOpponent.Metrics getComputerMetrics() {
+        return computer.getMetrics();
     }
 
     @Override
@@ -137,6 +154,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         ServerMessage msg = new NotificationServerMessage(username + " joined the game as " + connectionType.name() + ".");
         connections.broadcast(command.getGameID(), session, msg);
         connections.messageSession(session, new LoadGameServerMessage(game.game()));
+        requestComputerMove(game);
     }
 
     private void leave(UserGameCommand command, Session session) throws IOException, DataAccessException, ResponseException {
@@ -145,6 +163,9 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         GameConnectionRole connectionRole = getGameRole(game, username);
         connections.removeSession(command.getGameID(), session);
         handlePlayerLeaving(connectionRole, game);
+        if (connectionRole != GameConnectionRole.OBSERVER) {
+            computer.forgetGame(game.gameId());
+        }
         ServerMessage msg = new NotificationServerMessage(username + " (" + connectionRole.name() + ") left the game");
         connections.broadcast(command.getGameID(), session, msg);
         session.close();
@@ -162,6 +183,7 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         }
         game.game().setGameOver();
         gameDAO.updateGame(game.gameId(), game);
+        computer.forgetGame(game.gameId());
         ServerMessage msg = new NotificationServerMessage(username + " resigned the game, game is over.");
         connections.broadcast(game.gameId(), null, msg);
     }
@@ -177,20 +199,18 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
         connections.broadcast(gameID, session, moveNotification);
     }
 
-    private void sendStatusMessage(GameData gameData, ChessGame.TeamColor color) throws IOException {
+    private void sendStatusMessage(GameData gameData) throws IOException {
+        ChessGame game = gameData.game();
+        ChessGame.TeamColor color = game.getTeamTurn();
         String username = color == ChessGame.TeamColor.BLACK ? gameData.blackUsername() : gameData.whiteUsername();
-        if (gameData.game().isInCheckmate(color)) {
-            ServerMessage msg = new NotificationServerMessage(username + " is in checkmate.");
-            connections.broadcast(gameData.gameId(), null, msg);
-            return;
-        }
-        if (gameData.game().isInStalemate(color)) {
-            ServerMessage msg = new NotificationServerMessage(username + " is in stalemate.");
-            connections.broadcast(gameData.gameId(), null, msg);
-            return;
-        }
-        if (gameData.game().isInCheck(color)) {
-            ServerMessage msg = new NotificationServerMessage(username + " is in check.");
+        String status = switch (game.evaluateStatus()) {
+            case CHECKMATE -> " is in checkmate.";
+            case STALEMATE -> " is in stalemate.";
+            case CHECK -> " is in check.";
+            case IN_PROGRESS -> null;
+        };
+        if (status != null) {
+            ServerMessage msg = new NotificationServerMessage(username + status);
             connections.broadcast(gameData.gameId(), null, msg);
         }
     }
@@ -226,12 +246,70 @@ public class WebSocketHandler implements WsConnectHandler, WsMessageHandler, WsC
             connections.messageSession(session, msg);
             return;
         }
-        gameDAO.updateGame(game.gameId(), game);
-        ServerMessage loadGameMessage = new LoadGameServerMessage(game.game());
+        gameDAO.addMove(game.gameId(), chessGame, move);
+        ServerMessage loadGameMessage = new LoadGameServerMessage(chessGame);
         connections.broadcast(game.gameId(), null, loadGameMessage);
         // send message notifying of move
         sendMoveMessage(move, session, game.gameId(), username);
-        sendStatusMessage(game, ChessGame.TeamColor.BLACK);
-        sendStatusMessage(game, ChessGame.TeamColor.WHITE);
+        sendStatusMessage(game);
+        requestComputerMove(game);
+    }
+
+    /**
+     * Queues a search for the computer's move if it is the computer's turn in a game.
+     */
+    private void requestComputerMove(GameData gameData) throws IOException {
+        ChessGame game = gameData.game();
+        if (game.getGameOver()) {
+            computer.forgetGame(gameData.gameId());
+            return;
+        }
+        String username = game.getTeamTurn() == ChessGame.TeamColor.BLACK ?
+            gameData.blackUsername() : gameData.whiteUsername();
+        if (!Constants.COMPUTER_USERNAME.equals(username)) {
+            return;
+        }
+        if (!computer.requestMove(gameData.gameId(), game.getSnapshot(), computerListener)) {
+            ServerMessage msg = new ErrorServerMessage("The computer opponent is busy, reconnect to try again.");
+            connections.broadcast(gameData.gameId(), null, msg);
+        }
+    }
+
+    /**
+     * Plays the computer's move, unless the game has changed since the search began.
+     * Runs on a computer opponent worker thread.
+     */
+    private void playComputerMove(int gameID, long positionKey, ChessMove move) {
+        try {
+            GameData game = getGameByID(gameID);
+            ChessGame chessGame = game.game();
+            if (chessGame.getGameOver() || chessGame.getZobristKey() != positionKey) {
+                return;
+            }
+            chessGame.makeMove(move);
+            gameDAO.addMove(gameID, chessGame, move);
+            ServerMessage loadGameMessage = new LoadGameServerMessage(chessGame);
+            connections.broadcast(gameID, null, loadGameMessage);
+            sendMoveMessage(move, null, gameID, Constants.COMPUTER_USERNAME);
+            sendStatusMessage(game);
+            if (chessGame.getGameOver()) {
+                computer.forgetGame(gameID);
+            }
+        } catch (DataAccessException | ResponseException | InvalidMoveException | IOException e) {
+            reportComputerError(gameID);
+        }
+    }
+
+    /**
+     * Tells a game's players that the computer could not move, so they are not left waiting.
+     * Runs on a computer opponent worker thread.
+     */
+    private void reportComputerError(int gameID) {
+        ServerMessage msg = new ErrorServerMessage("The computer opponent could not move, reconnect to try again.");
+        try {
+            connections.broadcast(gameID, null, msg);
+        } catch (IOException e) {
+            // the game's sessions are gone, so there is no one left to tell
+        }
     }
 }
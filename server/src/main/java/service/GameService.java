@@ -12,6 +12,7 @@ import request.JoinGameRequest;
 import result.CreateGameResult;
 import result.JoinGameResult;
 import result.ListGamesResult;
+import sharedutil.Constants;
 import util.StringUtility;
 
 import java.util.Collection;
@@ -28,10 +29,15 @@ public class GameService {
             if (StringUtility.checkInvalidString(request.gameName())) {
                 throw new BadGameDataException("Missing game name.");
             }
+            String computerColor = request.computerColor();
+            if (computerColor != null && !computerColor.equals(ChessGame.TeamColor.WHITE.name()) &&
+                !computerColor.equals(ChessGame.TeamColor.BLACK.name())) {
+                throw new BadGameDataException("Invalid computer color. Must be WHITE or BLACK.");
+            }
             GameData gameData = new GameData(
                 0,
-                null,
-                null,
+                ChessGame.TeamColor.WHITE.name().equals(computerColor) ? Constants.COMPUTER_USERNAME : null,
+                ChessGame.TeamColor.BLACK.name().equals(computerColor) ? Constants.COMPUTER_USERNAME : null,
                 request.gameName(),
                 new ChessGame()
             );
@@ -16,6 +16,7 @@ import result.RegisterResult;
 import request.RegisterRequest;
 import request.LogoutRequest;
 import request.LoginRequest;
+import sharedutil.Constants;
 import util.StringUtility;
 
 import java.util.UUID;
@@ -38,7 +39,7 @@ public class UserService {
                 throw new BadRequestException("Incorrect fields, requires: username, password, and email");
             }
             UserData existingUser = userDAO.getUser(request.username());
-            if (existingUser != null) {
+            if (existingUser != null || request.username().equals(Constants.COMPUTER_USERNAME)) {
                 throw new AlreadyTakenException("Username " + request.username() + " is already taken.");
             }
             String hashedPassword = BCrypt.hashpw(request.password(), BCrypt.gensalt());
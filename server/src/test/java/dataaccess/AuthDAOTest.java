@@ -91,6 +91,42 @@ public class AuthDAOTest {
         });
     }
 
+    @Test
+    void testAddAuthDuplicateToken() {
+        String token = "Token6";
+        assertDoesNotThrow(() -> dao.addAuth(new AuthData(token, "User1")));
+        assertThrows(DataAccessException.class, () -> {
+            dao.addAuth(new AuthData(token, "User2"));
+        });
+    }
+
+    @Test
+    void testMigrateTextTokens() {
+        String token = "5f0b6a8e-3c1d-4f2a-9b7e-1d2c3b4a5f60";
+        assertDoesNotThrow(() -> {
+            // an auth table from before tokens were indexed, holding tokens the new column rejects
+            DatabaseManager.executeUpdate("DROP TABLE auth");
+            DatabaseManager.executeUpdate("""
+                CREATE TABLE auth (
+                    `id` int PRIMARY KEY NOT NULL AUTO_INCREMENT,
+                    `token` TEXT NOT NULL,
+                    `username` VARCHAR(256) NOT NULL
+                )
+                """);
+            insertAuth("User1", token);
+            insertAuth("User2", token);
+            insertAuth("User3", "x".repeat(37));
+            insertAuth("User4", "Tökén");
+            insertAuth("User5", "Token5");
+
+            dao = new DatabaseAuthDAO();
+            assertEquals(2, JunitUtils.getTableSize("auth"));
+            assertEquals("User1", dao.getAuth(token).username());
+            assertEquals("User5", dao.getAuth("Token5").username());
+            assertThrows(DataAccessException.class, () -> dao.addAuth(new AuthData(token, "User6")));
+        });
+    }
+
     @Test
     void testRemoveAuth() {
         String username = "User4";
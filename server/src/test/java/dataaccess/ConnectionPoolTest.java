@@ -0,0 +1,162 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    /**
+     * A stand-in for a database connection that only tracks whether it is open and valid.
+     */
+    private static class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed;
+                    case "isValid" -> valid && !closed;
+                    case "getAutoCommit" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                }
+            );
+        }
+    }
+
+    private final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+
+    private ConnectionPool createPool(int minSize, int maxSize, long idleTimeoutMillis) {
+        return new ConnectionPool(() -> {
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy();
+        }, minSize, maxSize, 100, idleTimeoutMillis, now::get);
+    }
+
+    @Test
+    void testClosedConnectionIsReused() throws SQLException {
+        try (ConnectionPool pool = createPool(0, 2, 60000)) {
+            Connection first = pool.getConnection();
+            first.close();
+            assertTrue(first.isClosed());
+            assertFalse(opened.getFirst().closed);
+
+            try (Connection second = pool.getConnection()) {
+                assertFalse(second.isClosed());
+            }
+            assertEquals(1, opened.size());
+            assertEquals(2, pool.getMetrics().borrowed());
+        }
+    }
+
+    @Test
+    void testReturnedConnectionCannotBeUsed() throws SQLException {
+        try (ConnectionPool pool = createPool(0, 1, 60000)) {
+            Connection connection = pool.getConnection();
+            connection.close();
+            assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+        }
+    }
+
+    @Test
+    void testMaxSizeTimesOut() throws SQLException {
+        try (ConnectionPool pool = createPool(0, 2, 60000)) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            assertThrows(SQLException.class, pool::getConnection);
+
+            ConnectionPool.Metrics metrics = pool.getMetrics();
+            assertEquals(2, metrics.open());
+            assertEquals(2, metrics.active());
+            assertEquals(1, metrics.timeouts());
+            assertTrue(metrics.maxWaitMillis() >= 100);
+
+            first.close();
+            pool.getConnection().close();
+            second.close();
+            assertEquals(2, opened.size());
+        }
+    }
+
+    @Test
+    void testMaintenanceTopsUpToMinimum() throws SQLException {
+        try (ConnectionPool pool = createPool(2, 3, 60000)) {
+            pool.maintain();
+            pool.maintain();
+            assertEquals(2, pool.getMetrics().open());
+            assertEquals(2, opened.size());
+
+            // a connection found broken when returned is dropped, and the next run replaces it
+            Connection borrowed = pool.getConnection();
+            opened.getFirst().closed = true;
+            borrowed.close();
+            assertEquals(1, pool.getMetrics().open());
+            pool.maintain();
+            assertEquals(2, pool.getMetrics().open());
+        }
+    }
+
+    @Test
+    void testFailedOpenIsNotCounted() {
+        ConnectionPool.ConnectionFactory failing = () -> {
+            throw new SQLException("Database is down.");
+        };
+        try (ConnectionPool pool = new ConnectionPool(failing, 1, 2, 100, 60000, now::get)) {
+            assertThrows(SQLException.class, pool::getConnection);
+            pool.maintain();
+            assertEquals(0, pool.getMetrics().open());
+            assertEquals(0, pool.getMetrics().active());
+        }
+    }
+
+    @Test
+    void testInvalidConnectionIsReplaced() throws SQLException {
+        try (ConnectionPool pool = createPool(0, 1, 60000)) {
+            pool.getConnection().close();
+            opened.getFirst().valid = false;
+            // connections returned very recently are not validated
+            now.addAndGet(1100);
+
+            pool.getConnection().close();
+            assertEquals(2, opened.size());
+            assertTrue(opened.getFirst().closed);
+            assertEquals(1, pool.getMetrics().open());
+        }
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() throws SQLException {
+        try (ConnectionPool pool = createPool(1, 3, 60000)) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            first.close();
+            second.close();
+            assertEquals(2, pool.getMetrics().idle());
+
+            now.addAndGet(60001);
+            pool.maintain();
+            ConnectionPool.Metrics metrics = pool.getMetrics();
+            assertEquals(1, metrics.open());
+            assertEquals(1, metrics.idle());
+            assertEquals(1, metrics.closed());
+        }
+    }
+}
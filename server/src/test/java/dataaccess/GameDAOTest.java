@@ -3,19 +3,22 @@ package dataaccess;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import chess.GameCodec;
+import chess.Move;
 import com.google.gson.Gson;
 import model.GameData;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GameDAOTest {
     GameDAO dao;
-    Gson gson;
 
     @BeforeAll
     static void init() {
@@ -24,11 +27,9 @@ public class GameDAOTest {
 
     @BeforeEach
     void setUp() {
-        gson = new Gson();
         assertDoesNotThrow(() -> {
             dao = new DatabaseGameDAO();
-            String statement = "TRUNCATE game";
-            DatabaseManager.executeUpdate(statement);
+            dao.clear();
         });
     }
 
@@ -46,7 +47,7 @@ public class GameDAOTest {
                 blackUsername,
                 whiteUsername,
                 gameName,
-                gson.toJson(game)
+                GameCodec.encode(game)
             );
         } catch (DataAccessException e) {
             fail("Error occurred setting up data in database");
@@ -70,6 +71,20 @@ public class GameDAOTest {
         });
     }
 
+    @Test
+    void testJsonGameConvertedOnStartup() {
+        // a JSON game left in the binary column by a conversion that did not finish
+        ChessGame game = new ChessGame();
+        assertDoesNotThrow(() -> {
+            game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            String statement = "INSERT INTO game (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+            int id = DatabaseManager.executeUpdate(statement, "white1", "black1", "game1", new Gson().toJson(game));
+
+            dao = new DatabaseGameDAO();
+            assertEquals(game, dao.getGame(id).game());
+        });
+    }
+
     @Test
     void testGetGameInvalid() {
         assertDoesNotThrow(() -> {
@@ -198,6 +213,131 @@ public class GameDAOTest {
         });
     }
 
+    @Test
+    void testAddMoves() {
+        ChessGame game = new ChessGame();
+        ChessMove[] knightMoves = {
+            new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null),
+            new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+            new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null),
+            new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null)
+        };
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", game));
+            // enough moves to write a snapshot and log more moves after it
+            for (int i = 0; i < DatabaseGameDAO.SNAPSHOT_INTERVAL + 3; i++) {
+                ChessMove move = knightMoves[i % knightMoves.length];
+                game.makeMove(move);
+                dao.addMove(id, game, move);
+                ChessGame dbGame = dao.getGame(id).game();
+                assertEquals(game, dbGame);
+                assertEquals(game.getFullmoveNumber(), dbGame.getFullmoveNumber());
+                // replayed moves are published, so the computer opponent searches the right position
+                assertEquals(game, dbGame.getSnapshot().toGame());
+            }
+            assertEquals(game, dao.getGames().iterator().next().game());
+        });
+    }
+
+    @Test
+    void testAddMovesBatch() {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = List.of(
+            new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+            new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+            new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null)
+        );
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", game));
+            for (ChessMove move : moves) {
+                game.makeMove(move);
+            }
+            dao.addMoves(id, game, moves);
+            assertEquals(moves.size(), JunitUtils.getTableSize("game_move"));
+            assertEquals(game, dao.getGame(id).game());
+        });
+    }
+
+    @Test
+    void testAddMovesPastSnapshot() {
+        ChessGame game = new ChessGame();
+        ChessMove[] knightMoves = {
+            new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null),
+            new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+            new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null),
+            new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null)
+        };
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", game));
+            List<ChessMove> moves = new ArrayList<>();
+            for (int i = 0; i < DatabaseGameDAO.SNAPSHOT_INTERVAL + 1; i++) {
+                ChessMove move = knightMoves[i % knightMoves.length];
+                game.makeMove(move);
+                moves.add(move);
+            }
+            // the moves cross a snapshot boundary, so the game is rewritten instead of logged
+            dao.addMoves(id, game, moves);
+            assertEquals(0, JunitUtils.getTableSize("game_move"));
+            assertEquals(game, dao.getGame(id).game());
+        });
+    }
+
+    @Test
+    void testAddMoveFromStaleGame() {
+        ChessMove whiteMove = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove otherWhiteMove = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", new ChessGame()));
+            ChessGame first = dao.getGame(id).game();
+            ChessGame second = dao.getGame(id).game();
+            first.makeMove(whiteMove);
+            second.makeMove(otherWhiteMove);
+            dao.addMove(id, first, whiteMove);
+
+            // both copies were read before either move was stored, so only the first move counts
+            assertThrows(DataAccessException.class, () -> dao.addMove(id, second, otherWhiteMove));
+            assertEquals(first, dao.getGame(id).game());
+        });
+    }
+
+    @Test
+    void testAddMoveToMissingGame() {
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        assertDoesNotThrow(() -> game.makeMove(move));
+        assertThrows(DataAccessException.class, () -> dao.addMove(1, game, move));
+    }
+
+    @Test
+    void testIllegalLoggedMove() {
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", new ChessGame()));
+            // a white rook cannot leave its corner at the start of the game
+            ChessMove illegal = new ChessMove(new ChessPosition(1, 1), new ChessPosition(5, 1), null);
+            DatabaseManager.executeUpdate(
+                "INSERT INTO game_move (gameId, ply, move) VALUES (?, ?, ?)",
+                id, 0, Move.fromChessMove(illegal)
+            );
+            assertThrows(DataAccessException.class, () -> dao.getGame(id));
+            assertThrows(DataAccessException.class, dao::getGames);
+        });
+    }
+
+    @Test
+    void testUpdateGameAfterAddMove() {
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null);
+        assertDoesNotThrow(() -> {
+            int id = dao.createGame(new GameData(1, "white1", "black1", "game1", game));
+            game.makeMove(move);
+            dao.addMove(id, game, move);
+            dao.updateGame(id, new GameData(id, "white1", null, "game1", game));
+            GameData dbGame = dao.getGame(id);
+            assertNull(dbGame.blackUsername());
+            assertEquals(game, dbGame.game());
+        });
+    }
+
     @Test
     void testUpdateGameInvalidInput() {
         GameData game = new GameData(
@@ -0,0 +1,78 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputerOpponentTest {
+
+    @Test
+    void testRequestMove() throws InterruptedException {
+        ComputerOpponent computer = new ComputerOpponent(1, 4, 3000);
+        ChessGame game = new ChessGame();
+        CountDownLatch moved = new CountDownLatch(1);
+        AtomicReference<ChessMove> result = new AtomicReference<>();
+        AtomicReference<Long> resultKey = new AtomicReference<>();
+
+        assertTrue(computer.requestMove(1, game.getSnapshot(), (gameID, positionKey, move) -> {
+            resultKey.set(positionKey);
+            result.set(move);
+            moved.countDown();
+        }));
+
+        assertTrue(moved.await(10, TimeUnit.SECONDS));
+        assertEquals(game.getZobristKey(), resultKey.get());
+        assertTrue(game.validMoves(result.get().getStartPosition()).contains(result.get()));
+        ComputerOpponent.Metrics metrics = computer.getMetrics();
+        assertEquals(1, metrics.submitted());
+        assertEquals(1, metrics.completed());
+        assertEquals(0, metrics.rejected());
+        computer.shutdown();
+    }
+
+    @Test
+    void testFullQueueRejects() throws InterruptedException {
+        ComputerOpponent computer = new ComputerOpponent(1, 1, 3000);
+        ChessGame game = new ChessGame();
+        CountDownLatch moved = new CountDownLatch(2);
+
+        assertTrue(computer.requestMove(1, game.getSnapshot(), (gameID, positionKey, move) -> moved.countDown()));
+        assertTrue(computer.requestMove(2, game.getSnapshot(), (gameID, positionKey, move) -> moved.countDown()));
+        assertFalse(computer.requestMove(3, game.getSnapshot(), (gameID, positionKey, move) -> fail()));
+        // a game with a search pending is not queued twice
+        assertTrue(computer.requestMove(1, game.getSnapshot(), (gameID, positionKey, move) -> fail()));
+
+        assertTrue(moved.await(10, TimeUnit.SECONDS));
+        assertEquals(1, computer.getMetrics().rejected());
+        computer.shutdown();
+    }
+
+    @Test
+    void testNoMoveIsReported() throws InterruptedException {
+        ComputerOpponent computer = new ComputerOpponent(1, 4, 3000);
+        // black is checkmated, so the engine has no move to play
+        ChessGame game = ChessGame.fromFen("7k/6Q1/6K1/8/8/8/8/8 b");
+        CountDownLatch failed = new CountDownLatch(1);
+
+        assertTrue(computer.requestMove(1, game.getSnapshot(), new ComputerOpponent.MoveListener() {
+            @Override
+            public void onMove(int gameID, long positionKey, ChessMove move) {
+                fail();
+            }
+
+            @Override
+            public void onFailure(int gameID, RuntimeException cause) {
+                failed.countDown();
+            }
+        }));
+
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        computer.shutdown();
+    }
+}
@@ -11,6 +11,7 @@ import request.CreateGameRequest;
 import request.JoinGameRequest;
 import result.CreateGameResult;
 import result.ListGamesResult;
+import sharedutil.Constants;
 
 import java.util.ArrayList;
 
@@ -59,6 +60,19 @@ class GameServiceTest {
         });
     }
 
+    @Test
+    void testCreateComputerGame() {
+        assertDoesNotThrow(() -> {
+            CreateGameResult result = service.createGame(new CreateGameRequest("Bot Game", "BLACK"));
+            GameData gameData = gameDAO.getGame(result.getGameID());
+            assertNull(gameData.whiteUsername());
+            assertEquals(Constants.COMPUTER_USERNAME, gameData.blackUsername());
+        });
+        assertThrows(BadGameDataException.class, () -> {
+            service.createGame(new CreateGameRequest("Bot Game", "PURPLE"));
+        });
+    }
+
     @Test
     void testListGames() {
         GameData game1 = new GameData(1, "Dave", "Bill", "Cool game", new ChessGame());
@@ -0,0 +1,93 @@
+package chess;
+
+import chess.bitboard.Bitboards;
+
+/**
+ * An immutable copy of a game's position, taken after a move is made.
+ * <p>
+ * Pieces are stored one byte per square, as their {@link Bitboards#pieceIndex} plus one
+ * (0 for an empty square). A snapshot never changes once built, so any number of threads
+ * can read it, or serialize a copy of it with {@link #toGame()}, while the game it came
+ * from keeps moving.
+ */
+public final class BoardSnapshot {
+
+    private final byte[] squares;
+    private final ChessGame.TeamColor teamTurn;
+    private final boolean gameOver;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final long zobristKey;
+
+    /**
+     * Copies the current position of a game. Must be called by the thread that moves the game.
+     * @param game The game to copy.
+     */
+    BoardSnapshot(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        squares = new byte[64];
+        long occupied = board.getOccupiedMask();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            ChessPiece piece = board.getPiece(square);
+            squares[square] = (byte) (Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1);
+            occupied &= occupied - 1;
+        }
+        teamTurn = game.getTeamTurn();
+        gameOver = game.getGameOver();
+        halfmoveClock = game.getHalfmoveClock();
+        fullmoveNumber = game.getFullmoveNumber();
+        zobristKey = game.getZobristKey();
+    }
+
+    /**
+     * @param position The position to look at.
+     * @return The piece at the position, or null if it is empty.
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        int pieceIndex = squares[Bitboards.square(position)];
+        return pieceIndex == 0 ? null : ChessPiece.of(pieceIndex - 1);
+    }
+
+    /**
+     * @return Which team's turn it was when the snapshot was taken
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return True if the game was over when the snapshot was taken
+     */
+    public boolean getGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return The {@link ChessGame#getZobristKey()} of the position
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return A new board holding the snapshot's pieces
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < squares.length; square++) {
+            if (squares[square] != 0) {
+                board.setPiece(square, ChessPiece.of(squares[square] - 1));
+            }
+        }
+        board.updateAttackMasks();
+        return board;
+    }
+
+    /**
+     * @return A new game in the snapshot's position, independent of the game it was taken from
+     */
+    public ChessGame toGame() {
+        return new ChessGame(toBoard(), teamTurn, halfmoveClock, fullmoveNumber, gameOver);
+    }
+}
@@ -1,5 +1,12 @@
 package chess;
 
+import chess.bitboard.AttackTables;
+import chess.bitboard.Bitboards;
+import chess.bitboard.MagicAttacks;
+import com.google.gson.*;
+import com.google.gson.annotations.JsonAdapter;
+
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -7,9 +14,14 @@ import java.util.Collection;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored both in a grid, for direct lookup by position, and in a set of
+ * 64-bit occupancy masks (see {@link Bitboards}) that are kept in sync by {@link #addPiece}.
+ * Only the grid is serialized; the masks are rebuilt when a board is read back.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoard.Serializer.class)
 public class ChessBoard implements Cloneable {
 
     /**
@@ -31,8 +43,39 @@ public class ChessBoard implements Cloneable {
      */
     private ChessPiece[][] boardGrid;
 
+    /**
+     * One occupancy mask per colored piece, indexed by {@link Bitboards#pieceIndex}.
+     */
+    private long[] pieceMasks;
+
+    /**
+     * One occupancy mask per team, indexed by {@link ChessGame.TeamColor#ordinal()}.
+     */
+    private long[] teamMasks;
+
+    /**
+     * Every occupied square on the board.
+     */
+    private long occupiedMask;
+
+    /**
+     * The Zobrist key of the pieces on the board, kept up to date by {@link #addPiece}.
+     */
+    private long zobristKey;
+
+    /**
+     * The squares each team attacks, indexed by {@link ChessGame.TeamColor#ordinal()}, so
+     * reading them never writes to the board. When the board changes, each team's mask is
+     * either kept, if the change cannot have affected it, or recomputed in full from the
+     * team's pieces; there are no per-square attack counts to update one piece at a time.
+     */
+    private long[] attackMasks;
+
     public ChessBoard() {
         boardGrid = new ChessPiece[8][8];
+        pieceMasks = new long[Bitboards.PIECE_KINDS];
+        teamMasks = new long[2];
+        attackMasks = new long[2];
     }
 
     /**
@@ -42,7 +85,93 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-       boardGrid[position.getRow() - 1][position.getColumn() - 1] = piece;
+        addPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, or clears the square if the piece is null.
+     * A team's attack mask is recomputed only if it had a piece added or removed here or
+     * attacked the square, since only then can one of its sliding pieces' lines have changed.
+     *
+     * @param square where to add the piece to, as a {@link Bitboards} index
+     * @param piece  the piece to add
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        ChessPiece previous = getPiece(square);
+        setPiece(square, piece);
+        long bit = 1L << square;
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            if ((attackMasks[team.ordinal()] & bit) != 0
+                    || (previous != null && previous.getTeamColor() == team)
+                    || (piece != null && piece.getTeamColor() == team)) {
+                attackMasks[team.ordinal()] = getAttackedSquares(team, occupiedMask);
+            }
+        }
+    }
+
+    /**
+     * Puts a piece on a square, or clears it, without updating the attack masks. Code
+     * that changes several squares at once calls {@link #updateAttackMasks()} when done.
+     *
+     * @param square where to put the piece, as a {@link Bitboards} index
+     * @param piece  the piece, or null to clear the square
+     */
+    void setPiece(int square, ChessPiece piece) {
+        int row = square >>> 3;
+        int col = square & 7;
+        long bit = 1L << square;
+        ChessPiece previous = boardGrid[row][col];
+        if (previous != null) {
+            zobristKey ^= Zobrist.pieceKey(previous, square);
+            pieceMasks[Bitboards.pieceIndex(previous.getTeamColor(), previous.getPieceType())] &= ~bit;
+            teamMasks[previous.getTeamColor().ordinal()] &= ~bit;
+            occupiedMask &= ~bit;
+        }
+        if (piece != null) {
+            zobristKey ^= Zobrist.pieceKey(piece, square);
+            pieceMasks[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= bit;
+            teamMasks[piece.getTeamColor().ordinal()] |= bit;
+            occupiedMask |= bit;
+        }
+        boardGrid[row][col] = piece;
+    }
+
+    /**
+     * Updates the attack masks after one team moved a piece with {@link #setPiece}. The
+     * mover's mask is always recomputed in full, since one of its pieces moved. The other
+     * team's mask is recomputed in full only if it lost a piece or one of its pieces
+     * attacked a square the move emptied or filled, since only then can a sliding piece's
+     * line have opened or closed; otherwise it is kept as it was.
+     *
+     * @param mover The team that moved.
+     * @param changedSquares A mask of the squares the move emptied or filled.
+     * @param capture True if the move captured a piece.
+     */
+    void updateAttackMasks(ChessGame.TeamColor mover, long changedSquares, boolean capture) {
+        ChessGame.TeamColor other = mover == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        attackMasks[mover.ordinal()] = getAttackedSquares(mover, occupiedMask);
+        if (capture || (attackMasks[other.ordinal()] & changedSquares) != 0) {
+            attackMasks[other.ordinal()] = getAttackedSquares(other, occupiedMask);
+        }
+    }
+
+    /**
+     * Restores attack masks saved from before the pieces were last moved with {@link #setPiece}.
+     * @param whiteAttacks The squares white attacks.
+     * @param blackAttacks The squares black attacks.
+     */
+    void setAttackMasks(long whiteAttacks, long blackAttacks) {
+        attackMasks[ChessGame.TeamColor.WHITE.ordinal()] = whiteAttacks;
+        attackMasks[ChessGame.TeamColor.BLACK.ordinal()] = blackAttacks;
+    }
+
+    /**
+     * Recomputes the squares each team attacks after pieces were placed with {@link #setPiece}.
+     */
+    void updateAttackMasks() {
+        attackMasks[ChessGame.TeamColor.WHITE.ordinal()] = getAttackedSquares(ChessGame.TeamColor.WHITE, occupiedMask);
+        attackMasks[ChessGame.TeamColor.BLACK.ordinal()] = getAttackedSquares(ChessGame.TeamColor.BLACK, occupiedMask);
     }
 
     /**
@@ -56,27 +185,48 @@ public class ChessBoard implements Cloneable {
         return boardGrid[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param square the square to get the piece from, as a {@link Bitboards} index
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return boardGrid[square >>> 3][square & 7];
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        ChessPiece[][] board = new ChessPiece[8][8];
-        addPieces(board);
-        boardGrid = board;
+        clear();
+        addPieces();
+    }
+
+    /**
+     * Removes every piece from the board.
+     */
+    private void clear() {
+        boardGrid = new ChessPiece[8][8];
+        Arrays.fill(pieceMasks, 0L);
+        Arrays.fill(teamMasks, 0L);
+        occupiedMask = 0L;
+        zobristKey = 0L;
+        Arrays.fill(attackMasks, 0L);
     }
 
     /**
      * Adds all pieces on the board arranged for a new game.
-     * @param board the board to use.
      */
-    private void addPieces(ChessPiece[][] board) {
-        for (int i = 0; i < board[0].length; i++) {
-            board[0][i] = new ChessPiece(ChessGame.TeamColor.WHITE, STARTING_PIECE_ORDER[i]);
-            board[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            board[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-            board[7][i] = new ChessPiece(ChessGame.TeamColor.BLACK, STARTING_PIECE_ORDER[i]);
+    private void addPieces() {
+        for (int i = 0; i < STARTING_PIECE_ORDER.length; i++) {
+            setPiece(Bitboards.square(1, i + 1), ChessPiece.of(ChessGame.TeamColor.WHITE, STARTING_PIECE_ORDER[i]));
+            setPiece(Bitboards.square(2, i + 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            setPiece(Bitboards.square(7, i + 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            setPiece(Bitboards.square(8, i + 1), ChessPiece.of(ChessGame.TeamColor.BLACK, STARTING_PIECE_ORDER[i]));
         }
+        updateAttackMasks();
     }
 
     /**
@@ -85,33 +235,235 @@ public class ChessBoard implements Cloneable {
      * @return The king for the specified color.
      */
     public ChessPosition getKingPosition(ChessGame.TeamColor color) {
-        for (int i = 0; i < boardGrid.length; i++) {
-            for (int j = 0; j < boardGrid[i].length; j++) {
-                ChessPiece piece = boardGrid[i][j];
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == color) {
-                    return new ChessPosition(i + 1, j + 1);
+        long kings = getPieceMask(color, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            return null;
+        }
+        int square = Long.numberOfTrailingZeros(kings);
+        return ChessPosition.of(square);
+    }
+
+    /**
+     * Gets the positions of every piece belonging to a team.
+     * @param color The team to find.
+     * @return The positions of that team's pieces, from a1 towards h8.
+     */
+    public Collection<ChessPosition> getAllTeamPositions(ChessGame.TeamColor color) {
+        return positionsOf(getTeamMask(color));
+    }
+
+    /**
+     * Gets the positions of every piece of one type belonging to a team.
+     * @param color The team to find.
+     * @param type The type of piece to find.
+     * @return The positions of those pieces, from a1 towards h8.
+     */
+    public Collection<ChessPosition> getPiecePositions(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return positionsOf(getPieceMask(color, type));
+    }
+
+    /**
+     * Converts a mask into the positions of its set squares.
+     * @param mask The mask to convert.
+     * @return One position per set bit.
+     */
+    private static Collection<ChessPosition> positionsOf(long mask) {
+        Collection<ChessPosition> positions = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            int square = Long.numberOfTrailingZeros(mask);
+            positions.add(ChessPosition.of(square));
+            mask &= mask - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * @param color The team of the piece.
+     * @param type The type of the piece.
+     * @return A mask of every square holding that piece.
+     */
+    public long getPieceMask(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceMasks[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @param color The team to get.
+     * @return A mask of every square holding one of that team's pieces.
+     */
+    public long getTeamMask(ChessGame.TeamColor color) {
+        return teamMasks[color.ordinal()];
+    }
+
+    /**
+     * @return A mask of every occupied square.
+     */
+    public long getOccupiedMask() {
+        return occupiedMask;
+    }
+
+    /**
+     * @return The Zobrist key of the pieces on the board. Equal boards always have equal keys.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square.
+     * @param square The square being attacked, as a {@link Bitboards} index.
+     * @param attackingTeam The team doing the attacking.
+     * @param occupied The occupancy to use for sliding pieces, which lets callers
+     *                 look through a piece that is about to move.
+     * @return A mask of the attacking pieces.
+     */
+    public long getAttackers(int square, ChessGame.TeamColor attackingTeam, long occupied) {
+        ChessGame.TeamColor defendingTeam = attackingTeam == ChessGame.TeamColor.WHITE ?
+                ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = getPieceMask(attackingTeam, ChessPiece.PieceType.QUEEN);
+        long rooks = getPieceMask(attackingTeam, ChessPiece.PieceType.ROOK) | queens;
+        long bishops = getPieceMask(attackingTeam, ChessPiece.PieceType.BISHOP) | queens;
+        return (MagicAttacks.rookAttacks(square, occupied) & rooks)
+                | (MagicAttacks.bishopAttacks(square, occupied) & bishops)
+                | (AttackTables.knightAttacks(square) & getPieceMask(attackingTeam, ChessPiece.PieceType.KNIGHT))
+                | (AttackTables.kingAttacks(square) & getPieceMask(attackingTeam, ChessPiece.PieceType.KING))
+                | (AttackTables.pawnAttacks(defendingTeam, square) & getPieceMask(attackingTeam, ChessPiece.PieceType.PAWN));
+    }
+
+    /**
+     * Gets every square attacked by a team on the board as it stands. The masks are kept
+     * up to date as pieces move, so this is a single lookup.
+     * @param attackingTeam The team doing the attacking.
+     * @return A mask of attacked squares.
+     */
+    public long getAttackedSquares(ChessGame.TeamColor attackingTeam) {
+        return attackMasks[attackingTeam.ordinal()];
+    }
+
+    /**
+     * Gets every square attacked by a team.
+     * @param attackingTeam The team doing the attacking.
+     * @param occupied The occupancy to use for sliding pieces.
+     * @return A mask of attacked squares.
+     */
+    public long getAttackedSquares(ChessGame.TeamColor attackingTeam, long occupied) {
+        long attacked = 0;
+        long pieces = getTeamMask(attackingTeam);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            switch (getPiece(square).getPieceType()) {
+                case PAWN -> attacked |= AttackTables.pawnAttacks(attackingTeam, square);
+                case KNIGHT -> attacked |= AttackTables.knightAttacks(square);
+                case BISHOP -> attacked |= MagicAttacks.bishopAttacks(square, occupied);
+                case ROOK -> attacked |= MagicAttacks.rookAttacks(square, occupied);
+                case QUEEN -> attacked |= MagicAttacks.queenAttacks(square, occupied);
+                case KING -> attacked |= AttackTables.kingAttacks(square);
+            }
+            pieces &= pieces - 1;
+        }
+        return attacked;
+    }
+
+    /**
+     * Creates a board from the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Ranks run from 8 down to 1,
+     * white pieces are upper case, black pieces lower case, and digits count empty squares.
+     *
+     * @param placement the piece placement field
+     * @return a new board with those pieces
+     * @throws IllegalArgumentException if the placement is not valid
+     */
+    public static ChessBoard fromFen(String placement) {
+        String[] ranks = placement.split("/", -1);
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN placement must have 8 ranks: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                }
+                else if (col <= 8) {
+                    board.setPiece(Bitboards.square(row, col), pieceFromChar(c, placement));
+                    col++;
+                }
+                else {
+                    col++;
                 }
             }
+            if (col != 9) {
+                throw new IllegalArgumentException("FEN rank " + row + " does not have 8 squares: " + placement);
+            }
         }
-        return null;
+        board.updateAttackMasks();
+        return board;
     }
 
-    public Collection<ChessPosition> getAllTeamPositions(ChessGame.TeamColor color) {
-        Collection<ChessPosition> positions = new ArrayList<>();
-        for (int i = 0; i < boardGrid.length; i++) {
-            for (int j = 0; j < boardGrid[i].length; j++) {
-                ChessPiece piece = boardGrid[i][j];
-                if (piece != null && piece.getTeamColor() == color) {
-                    positions.add(new ChessPosition(i + 1, j + 1));
+    /**
+     * Writes the board as the piece placement field of a FEN string.
+     *
+     * @return the piece placement, rank 8 first
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (ChessPiece piece : boardGrid[row]) {
+                if (piece == null) {
+                    empty++;
+                    continue;
                 }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
             }
         }
-        return positions;
+        return fen.toString();
+    }
+
+    /**
+     * @param piece A piece.
+     * @return The piece's FEN letter, upper case for white and lower case for black.
+     */
+    private static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> 'P';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? c : Character.toLowerCase(c);
+    }
+
+    private static ChessPiece pieceFromChar(char c, String placement) {
+        ChessPiece.PieceType type = switch (Character.toUpperCase(c)) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'P' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Invalid piece '" + c + "' in FEN: " + placement);
+        };
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        return ChessPiece.of(color, type);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(boardGrid);
+        return Long.hashCode(zobristKey);
     }
 
     @Override
@@ -119,6 +471,9 @@ public class ChessBoard implements Cloneable {
         if (!(obj instanceof ChessBoard compare)) {
             return false;
         }
+        if (zobristKey != compare.zobristKey) {
+            return false;
+        }
         return Arrays.deepEquals(boardGrid, compare.boardGrid);
     }
 
@@ -127,18 +482,7 @@ public class ChessBoard implements Cloneable {
         StringBuilder repr = new StringBuilder();
         for (int i = 7; i >= 0; i--) {
             for (ChessPiece piece : boardGrid[i]) {
-                String toAdd = " ";
-                if (piece != null) {
-                    switch (piece.getPieceType()) {
-                        case KING -> toAdd = "K";
-                        case PAWN -> toAdd = "P";
-                        case QUEEN -> toAdd = "Q";
-                        case KNIGHT -> toAdd = "N";
-                        case ROOK -> toAdd = "R";
-                        case BISHOP -> toAdd = "B";
-                    }
-                }
-                repr.append(toAdd);
+                repr.append(piece == null ? ' ' : pieceChar(piece));
             }
             repr.append("\n");
         }
@@ -148,17 +492,44 @@ public class ChessBoard implements Cloneable {
     @Override
     public Object clone() throws CloneNotSupportedException {
         ChessBoard newBoard = (ChessBoard) super.clone();
+        newBoard.boardGrid = new ChessPiece[8][];
         for (int i = 0; i < boardGrid.length; i++) {
-            for (int j = 0; j < boardGrid[i].length; j++) {
-                ChessPiece atPosition = boardGrid[i][j];
-                if (atPosition == null) {
-                    newBoard.boardGrid[i][j] = null;
-                }
-                else {
-                    newBoard.boardGrid[i][j] = (ChessPiece)atPosition.clone();
+            newBoard.boardGrid[i] = boardGrid[i].clone();
+        }
+        newBoard.pieceMasks = pieceMasks.clone();
+        newBoard.teamMasks = teamMasks.clone();
+        newBoard.attackMasks = attackMasks.clone();
+        return newBoard;
+    }
+
+    /**
+     * Keeps the JSON form of a board to just its grid, and rebuilds the occupancy masks
+     * through {@link #setPiece} when a board is read back.
+     */
+    static class Serializer implements JsonSerializer<ChessBoard>, JsonDeserializer<ChessBoard> {
+        private static final String GRID_FIELD = "boardGrid";
+
+        @Override
+        public JsonElement serialize(ChessBoard board, Type type, JsonSerializationContext context) {
+            JsonObject json = new JsonObject();
+            json.add(GRID_FIELD, context.serialize(board.boardGrid));
+            return json;
+        }
+
+        @Override
+        public ChessBoard deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            ChessPiece[][] grid = context.deserialize(json.getAsJsonObject().get(GRID_FIELD), ChessPiece[][].class);
+            ChessBoard board = new ChessBoard();
+            for (int i = 0; i < grid.length; i++) {
+                for (int j = 0; j < grid[i].length; j++) {
+                    ChessPiece piece = grid[i][j];
+                    if (piece != null) {
+                        board.setPiece(Bitboards.square(i + 1, j + 1), ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+                    }
                 }
             }
+            board.updateAttackMasks();
+            return board;
         }
-        return newBoard;
     }
 }
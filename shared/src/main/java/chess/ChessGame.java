@@ -1,8 +1,9 @@
 package chess;
 
-import java.util.ArrayList;
+import chess.bitboard.Bitboards;
+
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -13,18 +14,85 @@ import java.util.Objects;
 public class ChessGame {
 
     private ChessBoard board;
-    private ChessBoard testBoard;
     private TeamColor currentTeam;
 
     private boolean gameOver;
 
+    /**
+     * Plies since the last capture or pawn move, stopping at {@link #MAX_HALFMOVE_CLOCK}.
+     */
+    private int halfmoveClock;
+
+    /**
+     * The number of the current full move, starting at 1 and going up after each black move.
+     */
+    private int fullmoveNumber;
+
+    /**
+     * The result of the last {@link #evaluateStatus()} call, and the position key it was computed for.
+     */
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
+
+    /**
+     * One packed record per move played with {@link #doMove(int)}, newest last. Bits 0-15 hold
+     * the {@link Move}, bits 16-19 the {@link chess.bitboard.Bitboards#pieceIndex} of the captured
+     * piece plus one (0 for none), the two bits above that the team to move and the game
+     * over flag from before the move, and bits 22-31 the halfmove clock from before the move.
+     */
+    private transient int[] undoStack;
+    private transient int undoCount;
+
+    /**
+     * The white and black attack masks from before each move on the undo stack, so that
+     * {@link #undoMove()} restores them instead of recomputing them.
+     */
+    private transient long[] attackStack;
+
+    /**
+     * The position as of the last {@link #makeMove} or {@link #publishSnapshot()}, for readers
+     * on other threads. Null until first asked for, and again after the board, turn or game
+     * over flag is set directly.
+     */
+    private transient volatile BoardSnapshot snapshot;
+
+    private static final int UNDO_MOVE_MASK = 0xFFFF;
+    private static final int UNDO_CAPTURED_SHIFT = 16;
+    private static final int UNDO_CAPTURED_MASK = 0xF;
+    private static final int UNDO_BLACK_TO_MOVE = 1 << 20;
+    private static final int UNDO_GAME_OVER = 1 << 21;
+    private static final int UNDO_CLOCK_SHIFT = 22;
+
+    /**
+     * The most the halfmove clock counts to, which is all the undo record has room for and
+     * far past any move-count draw rule.
+     */
+    public static final int MAX_HALFMOVE_CLOCK = 0x3FF;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
-        testBoard = new ChessBoard();
-        testBoard.resetBoard();
         currentTeam = TeamColor.WHITE;
         gameOver = false;
+        fullmoveNumber = 1;
+    }
+
+    /**
+     * Creates a game in a position restored from elsewhere, publishing its snapshot once.
+     *
+     * @param board the board, which the game takes ownership of
+     * @param team the team whose turn it is
+     * @param halfmoveClock plies since the last capture or pawn move
+     * @param fullmoveNumber the number of the current full move
+     * @param gameOver whether the game is over
+     */
+    ChessGame(ChessBoard board, TeamColor team, int halfmoveClock, int fullmoveNumber, boolean gameOver) {
+        this.board = board;
+        currentTeam = team;
+        this.gameOver = gameOver;
+        this.halfmoveClock = Math.min(halfmoveClock, MAX_HALFMOVE_CLOCK);
+        this.fullmoveNumber = fullmoveNumber;
+        publishSnapshot();
     }
 
     /**
@@ -41,6 +109,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTeam = team;
+        snapshot = null;
     }
 
     /**
@@ -51,6 +120,16 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Enum describing the situation of the team whose turn it is
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -59,23 +138,22 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece piece = testBoard.getPiece(startPosition);
+        ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> uncheckedMoves = piece.pieceMoves(testBoard, startPosition);
-        Collection<ChessMove> checkedMoves = new ArrayList<>();
-        for (ChessMove move : uncheckedMoves) {
-            ChessPiece atEnd = testBoard.getPiece(move.getEndPosition());
-            testBoard.addPiece(move.getStartPosition(), null);
-            testBoard.addPiece(move.getEndPosition(), piece);
-            if (!isInCheck(piece.getTeamColor())) {
-                checkedMoves.add(move);
-            }
-            testBoard.addPiece(move.getStartPosition(), piece);
-            testBoard.addPiece(move.getEndPosition(), atEnd);
-        }
-        return checkedMoves;
+        return new LegalMoveGenerator(board, piece.getTeamColor()).legalMoves(startPosition, piece);
+    }
+
+    /**
+     * Generates every legal move for the team whose turn it is, as packed {@link Move} ints
+     * that can be played with {@link #doMove(int)}.
+     *
+     * @param moves the buffer to write moves into, at least {@link Move#MAX_MOVES} long
+     * @return the number of moves written
+     */
+    public int generateMoves(int[] moves) {
+        return new LegalMoveGenerator(board, currentTeam).generateMoves(moves, 0);
     }
 
     public void assertValidMove(ChessMove move, TeamColor userColor) throws InvalidMoveException {
@@ -92,8 +170,7 @@ public class ChessGame {
         if (piece.getTeamColor() != currentTeam) {
             throw new InvalidMoveException("Cannot move piece out of turn.");
         }
-        Collection<ChessMove> moves = validMoves(move.getStartPosition());
-        if (!moves.contains(move)) {
+        if (!new LegalMoveGenerator(board, piece.getTeamColor()).isLegal(Move.fromChessMove(move))) {
             throw new InvalidMoveException("Invalid move.");
         }
     }
@@ -106,249 +183,158 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         assertValidMove(move, null);
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        board.addPiece(move.getStartPosition(), null);
-        testBoard.addPiece(move.getStartPosition(), null);
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-            testBoard.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-        }
-        else {
-            board.addPiece(move.getEndPosition(), piece);
-            testBoard.addPiece(move.getEndPosition(), piece);
-        }
-        currentTeam = currentTeam == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
-        if (isInCheckmate(currentTeam) || isInStalemate(currentTeam)) {
+        doMove(Move.fromChessMove(move));
+        GameStatus status = evaluateStatus();
+        if (status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE) {
             gameOver = true;
         }
+        publishSnapshot();
     }
 
     /**
-     * Determines if the given team is in check
+     * Plays a move without checking that it is legal or updating whether the game is over,
+     * so that it can be taken back with {@link #undoMove()}. Use {@link #makeMove} for moves
+     * that have not already been validated. The move is not published to {@link #getSnapshot()}.
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @param move chess move to perform
+     * @throws IllegalArgumentException if there is no piece at the move's start position
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = testBoard.getKingPosition(teamColor);
-        return positionInCheck(teamColor, kingPosition);
+    public void doMove(ChessMove move) {
+        if (board.getPiece(move.getStartPosition()) == null) {
+            throw new IllegalArgumentException("No piece selected, cannot move.");
+        }
+        doMove(Move.fromChessMove(move));
     }
 
     /**
-     * Determines if a king in the given location would be in check.
+     * Plays a packed {@link Move} without checking it, pushing an undo record. Nothing is
+     * allocated unless the undo stack has to grow.
      *
-     * @param teamColor The color of the king being tested.
-     * @param position The position of the king being tested.
-     * @return True if the king would be in check.
-     */
-    private boolean positionInCheck(TeamColor teamColor, ChessPosition position) {
-        boolean inCheck = checkByHorizontal(teamColor, position);
-        inCheck = inCheck || checkByDiagonal(teamColor, position);
-        inCheck = inCheck || checkByKnight(teamColor, position);
-        inCheck = inCheck || checkByKing(teamColor, position);
-        inCheck = inCheck || checkByPawn(teamColor, position);
-        return inCheck;
-    }
-
-    /**
-     * Private helper method to test if a team's king is in check by rook or queen.
-     * @param teamColor Color of king to test.
-     * @param position Position of the king to test.
-     * @return True if the king is in check by a rook or queen.
-     */
-    private boolean checkByHorizontal(TeamColor teamColor, ChessPosition position) {
-        boolean inCheck = testLoopDirection(
-                teamColor,
-                position,
-                1,
-                0,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                -1,
-                0,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                0,
-                1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                0,
-                -1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK}
-        );
-        return inCheck;
-    }
-
-    /**
-     * Private helper method to test if a team's king is in check by bishop or queen.
-     * @param teamColor Color of king to test.
-     * @param position Position of the king to test.
-     * @return True if the king is in check by a bishop or queen.
-     */
-    private boolean checkByDiagonal(TeamColor teamColor, ChessPosition position) {
-        boolean inCheck = testLoopDirection(
-                teamColor,
-                position,
-                1,
-                1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                -1,
-                1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                1,
-                -1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP}
-        );
-        inCheck = inCheck || testLoopDirection(
-                teamColor,
-                position,
-                -1,
-                -1,
-                new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP}
-        );
-        return inCheck;
-    }
-
-    /**
-     * Helper method to check if a given team's king is in check by a knight.
-     * @param teamColor Color of king to test.
-     * @param position Position of the king to test.
-     * @return True if the king is in check by a knight.
-     */
-    private boolean checkByKnight(TeamColor teamColor, ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        ChessPosition[] knightSpots = {
-                new ChessPosition(row + 1, col + 2),
-                new ChessPosition(row + 1, col - 2),
-                new ChessPosition(row - 1, col + 2),
-                new ChessPosition(row - 1, col - 2),
-                new ChessPosition(row + 2, col + 1),
-                new ChessPosition(row + 2, col - 1),
-                new ChessPosition(row - 2, col + 1),
-                new ChessPosition(row - 2, col - 1),
-        };
-        return checkByPositions(teamColor, knightSpots, ChessPiece.PieceType.KNIGHT);
-    }
-
-    /**
-     * Helper method to check if a given team's king is in check by a king.
-     * @param teamColor Color of king to test.
-     * @param position Position of the king to test.
-     * @return True if the king is in check by a king.
-     */
-    private boolean checkByKing(TeamColor teamColor, ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        ChessPosition[] kingSpots = {
-                new ChessPosition(row + 1, col),
-                new ChessPosition(row + 1, col + 1),
-                new ChessPosition(row + 1, col  - 1),
-                new ChessPosition(row, col + 1),
-                new ChessPosition(row, col - 1),
-                new ChessPosition(row - 1, col),
-                new ChessPosition(row - 1, col + 1),
-                new ChessPosition(row - 1, col - 1),
-        };
-        return checkByPositions(teamColor, kingSpots, ChessPiece.PieceType.KING);
+     * @param move the packed move, which must start on a square holding a piece
+     */
+    public void doMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece captured = board.getPiece(to);
+        int record = move & UNDO_MOVE_MASK;
+        if (captured != null) {
+            int capturedIndex = Bitboards.pieceIndex(captured.getTeamColor(), captured.getPieceType());
+            record |= (capturedIndex + 1) << UNDO_CAPTURED_SHIFT;
+        }
+        if (currentTeam == TeamColor.BLACK) {
+            record |= UNDO_BLACK_TO_MOVE;
+        }
+        if (gameOver) {
+            record |= UNDO_GAME_OVER;
+        }
+        record |= halfmoveClock << UNDO_CLOCK_SHIFT;
+        pushUndoRecord(record, board.getAttackedSquares(TeamColor.WHITE), board.getAttackedSquares(TeamColor.BLACK));
+
+        if (captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            halfmoveClock = 0;
+        }
+        else if (halfmoveClock < MAX_HALFMOVE_CLOCK) {
+            halfmoveClock++;
+        }
+        if (currentTeam == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        board.setPiece(from, null);
+        board.setPiece(to, promotion == null ? piece : ChessPiece.of(piece.getTeamColor(), promotion));
+        board.updateAttackMasks(currentTeam, (1L << from) | (1L << to), captured != null);
+        currentTeam = currentTeam == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
-     * Helper method to check if a given team's king is in check by a pawn.
-     * @param teamColor Color of king to test.
-     * @param position Position of the king to test.
-     * @return True if the king is in check by a pawn.
+     * Takes back the last move played with {@link #doMove} or {@link #makeMove}, restoring
+     * the captured piece, the team to move, the move clocks and whether the game was over.
+     * Like {@link #doMove}, this is not published to {@link #getSnapshot()}.
+     *
+     * @throws IllegalStateException if there is no move to take back
      */
-    private boolean checkByPawn(TeamColor teamColor, ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        int checkDirection = teamColor == TeamColor.WHITE ? 1 : -1;
-        ChessPosition[] pawnSpots = {
-                new ChessPosition(row + checkDirection, col + 1),
-                new ChessPosition(row + checkDirection, col - 1),
-        };
-        return checkByPositions(teamColor, pawnSpots, ChessPiece.PieceType.PAWN);
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo.");
+        }
+        int record = undoStack[--undoCount];
+        int from = Move.from(record);
+        int to = Move.to(record);
+        ChessPiece piece = board.getPiece(to);
+        if (Move.promotion(record) != null) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        int capturedIndex = (record >>> UNDO_CAPTURED_SHIFT) & UNDO_CAPTURED_MASK;
+        board.setPiece(to, capturedIndex == 0 ? null : ChessPiece.of(capturedIndex - 1));
+        board.setPiece(from, piece);
+        board.setAttackMasks(attackStack[undoCount * 2], attackStack[undoCount * 2 + 1]);
+        currentTeam = (record & UNDO_BLACK_TO_MOVE) != 0 ? TeamColor.BLACK : TeamColor.WHITE;
+        gameOver = (record & UNDO_GAME_OVER) != 0;
+        halfmoveClock = record >>> UNDO_CLOCK_SHIFT;
+        if (currentTeam == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
     }
 
     /**
-     * Private helper method to test if a team's king is in check by a given piece in a list of possible spots.
-     * @param teamColor Color of king to test.
-     * @param possiblePositions List of positions to check for this piece.
-     * @param dangerPiece The type of ChessPiece to check for.
-     * @return True if the king is in check by the given piece.
+     * @return True if there is a move that {@link #undoMove()} can take back
      */
-    private boolean checkByPositions(TeamColor teamColor, ChessPosition[] possiblePositions, ChessPiece.PieceType dangerPiece) {
-        for (ChessPosition checkPos : possiblePositions) {
-            if (checkPos.getRow() >= 1 && checkPos.getRow() <= 8 && checkPos.getColumn() >= 1 && checkPos.getColumn() <= 8) {
-                ChessPiece pieceAt = testBoard.getPiece(checkPos);
-                if (pieceAt != null && pieceAt.getTeamColor() != teamColor && pieceAt.getPieceType() == dangerPiece) {
-                    return true;
-                }
-            }
+    public boolean canUndo() {
+        return undoCount > 0;
+    }
+
+    private void pushUndoRecord(int record, long whiteAttacks, long blackAttacks) {
+        if (undoStack == null) {
+            undoStack = new int[64];
+            attackStack = new long[128];
         }
-        return false;
-    }
-
-    /**
-     * A helper method that checks a specific direction in a loop for specific pieces that put a King in check.
-     * @param teamColor The color of king that is being tested.
-     * @param startPosition The position of the king being tested.
-     * @param up Amount to move up
-     * @param right Amount to move right
-     * @param testPieces A list of pieces to search for.
-     * @return If there is a piece that endangers the king at position.
-     */
-    private boolean testLoopDirection(TeamColor teamColor, ChessPosition startPosition, int up, int right, ChessPiece.PieceType[] testPieces) {
-        boolean continueLoopCheck = true;
-        ChessPosition currentPosition = new ChessPosition(startPosition.getRow(), startPosition.getColumn());
-        while (continueLoopCheck) {
-            currentPosition = new ChessPosition(currentPosition.getRow() + up, currentPosition.getColumn() + right);
-            if (currentPosition.getRow() < 1 || currentPosition.getRow() > 8 ||
-                    currentPosition.getColumn() < 1 || currentPosition.getColumn() > 8) {
-                break;
-            }
-            continueLoopCheck = false;
-            ChessPiece piece = testBoard.getPiece(currentPosition);
-            if (piece == null) {
-                continueLoopCheck = true;
-            }
-            else if (piece.getTeamColor() != teamColor && checkPieceType(piece, testPieces)) {
-                return true;
-            }
+        else if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+            attackStack = Arrays.copyOf(attackStack, undoCount * 4);
         }
-        return false;
+        attackStack[undoCount * 2] = whiteAttacks;
+        attackStack[undoCount * 2 + 1] = blackAttacks;
+        undoStack[undoCount++] = record;
     }
 
     /**
-     * Helper method to determine if the given piece is one of the types in the provided list of types.
-     * @param piece The piece being checked.
-     * @param testPieces The list of piece types to check for.
-     * @return True if the piece's type is in the provided list.
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
      */
-    private boolean checkPieceType(ChessPiece piece, ChessPiece.PieceType[] testPieces) {
-        for (ChessPiece.PieceType type : testPieces) {
-            if (piece.getPieceType() == type) {
-                return true;
-            }
+    public boolean isInCheck(TeamColor teamColor) {
+        long kings = board.getPieceMask(teamColor, ChessPiece.PieceType.KING);
+        TeamColor enemy = teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        return (board.getAttackedSquares(enemy) & kings) != 0;
+    }
+
+    /**
+     * Determines whether the team whose turn it is is in check, checkmate or stalemate,
+     * with a single pass over its legal moves. The result is cached until the position
+     * or the team to move changes.
+     *
+     * @return the status of the team whose turn it is
+     */
+    public GameStatus evaluateStatus() {
+        long key = getZobristKey();
+        if (cachedStatus != null && cachedStatusKey == key) {
+            return cachedStatus;
         }
-        return false;
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, currentTeam);
+        boolean inCheck = generator.inCheck();
+        GameStatus status;
+        if (generator.hasLegalMove()) {
+            status = inCheck ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
+        }
+        else {
+            status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        cachedStatus = status;
+        cachedStatusKey = key;
+        return status;
     }
 
     /**
@@ -358,16 +344,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        Collection<ChessPosition> teamPositions = testBoard.getAllTeamPositions(teamColor);
-        for (ChessPosition position : teamPositions) {
-            if (!validMoves(position).isEmpty()) {
-                return false;
-            }
-        }
-        return true;
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, teamColor);
+        return generator.inCheck() && !generator.hasLegalMove();
     }
 
     /**
@@ -378,31 +356,20 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        Collection<ChessPosition> teamPositions = testBoard.getAllTeamPositions(teamColor);
-        for (ChessPosition position : teamPositions) {
-            if (!validMoves(position).isEmpty()) {
-                return false;
-            }
-        }
-        return true;
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, teamColor);
+        return !generator.inCheck() && !generator.hasLegalMove();
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board, clearing the moves that
+     * {@link #undoMove()} could take back
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
-        try {
-            this.testBoard = (ChessBoard) board.clone();
-        }
-        catch (CloneNotSupportedException e) {
-            System.out.println(e.toString());
-        }
+        undoCount = 0;
+        snapshot = null;
     }
 
     /**
@@ -420,11 +387,136 @@ public class ChessGame {
 
     public void setGameOver() {
         gameOver = true;
+        snapshot = null;
+    }
+
+    /**
+     * Gets an immutable copy of the position as of the last move made with {@link #makeMove}
+     * or the last {@link #publishSnapshot()}, which other threads may read without locking
+     * while this game keeps moving.
+     * <p>
+     * If nothing has been published since the game was created or its board, turn or game
+     * over flag were set, one is taken from the current position, so the first call should
+     * come from the thread that moves the game.
+     *
+     * @return the latest published snapshot
+     */
+    public BoardSnapshot getSnapshot() {
+        BoardSnapshot current = snapshot;
+        if (current == null) {
+            current = publishSnapshot();
+        }
+        return current;
+    }
+
+    /**
+     * Publishes the current position to {@link #getSnapshot()}. Call this from the thread
+     * that moves the game after moving it with {@link #doMove}, such as after replaying
+     * stored moves.
+     *
+     * @return the published snapshot
+     */
+    public BoardSnapshot publishSnapshot() {
+        BoardSnapshot current = new BoardSnapshot(this);
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * @return The number of plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return The number of the current full move, starting at 1
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1}.
+     * <p>
+     * Trailing fields may be left off, defaulting to white to move and clocks of 0 and 1.
+     * These rules have no castling or en passant, so those fields are checked but otherwise
+     * ignored. The game is over if the team to move is checkmated or stalemated.
+     *
+     * @param fen the position to load
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length > 6) {
+            throw new IllegalArgumentException("FEN has too many fields: " + fen);
+        }
+        ChessBoard board = ChessBoard.fromFen(fields[0]);
+        String side = fields.length > 1 ? fields[1] : "w";
+        TeamColor team = switch (side) {
+            case "w" -> TeamColor.WHITE;
+            case "b" -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Invalid side to move in FEN: " + side);
+        };
+        if (fields.length > 2 && !fields[2].matches("-|K?Q?k?q?")) {
+            throw new IllegalArgumentException("Invalid castling rights in FEN: " + fields[2]);
+        }
+        if (fields.length > 3 && !fields[3].matches("-|[a-h][36]")) {
+            throw new IllegalArgumentException("Invalid en passant square in FEN: " + fields[3]);
+        }
+        ChessGame game = new ChessGame(board, team, fields.length > 4 ? parseFenNumber(fields[4], 0) : 0,
+                fields.length > 5 ? parseFenNumber(fields[5], 1) : 1, false);
+        GameStatus status = game.evaluateStatus();
+        if (status == GameStatus.CHECKMATE || status == GameStatus.STALEMATE) {
+            game.setGameOver();
+        }
+        return game;
+    }
+
+    private static int parseFenNumber(String field, int min) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value >= min) {
+                return value;
+            }
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid move number in FEN: " + field);
+    }
+
+    /**
+     * Writes the current position in Forsyth-Edwards Notation. The castling and en passant
+     * fields are always {@code -}, since these rules have neither.
+     *
+     * @return the position as FEN
+     */
+    public String toFen() {
+        String side = currentTeam == TeamColor.WHITE ? "w" : "b";
+        return board.toFen() + " " + side + " - - " + halfmoveClock + " " + fullmoveNumber;
+    }
+
+    /**
+     * Gets a 64-bit key identifying the current position: the pieces on the board and
+     * the team to move. Equal positions always share a key, so it can be used for
+     * caches and repetition detection.
+     *
+     * @return the Zobrist key of the current position
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey();
+        if (currentTeam == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return key;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTeam);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
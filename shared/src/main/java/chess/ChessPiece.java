@@ -1,6 +1,6 @@
 package chess;
 
-import chess.piececalculators.*;
+import chess.piececalculators.PieceCalculator;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -13,6 +13,19 @@ import java.util.Objects;
  */
 public class ChessPiece implements Cloneable {
 
+    /**
+     * One shared instance for each colored piece, indexed by color then type.
+     */
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][6];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType pieceType;
 
@@ -21,6 +34,27 @@ public class ChessPiece implements Cloneable {
         this.pieceType = type;
     }
 
+    /**
+     * Gets the shared instance of a piece. Pieces are immutable, so one instance of
+     * each of the 12 colored pieces is enough.
+     *
+     * @param pieceColor which team the piece belongs to
+     * @param type which type of piece it is
+     * @return the shared piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * Gets the shared instance of a piece from its {@link chess.bitboard.Bitboards#pieceIndex}.
+     * @param pieceIndex The index of the colored piece.
+     * @return The shared piece.
+     */
+    static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex / 6][pieceIndex % 6];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -55,19 +89,52 @@ public class ChessPiece implements Cloneable {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceCalculator calculator = null;
-        switch (pieceType) {
-            case PAWN -> calculator = new PawnCalculator(pieceColor);
-            case KNIGHT -> calculator = new KnightCalculator(pieceColor);
-            case ROOK -> calculator = new RookCalculator(pieceColor);
-            case BISHOP -> calculator = new BishopCalculator(pieceColor);
-            case QUEEN -> calculator = new QueenCalculator(pieceColor);
-            case KING -> calculator = new KingCalculator(pieceColor);
-        }
-        if (calculator == null) {
-            throw new RuntimeException("Invalid piece type.");
-        }
-        return calculator.calculateMoves(board, myPosition);
+        return getCalculator().calculateMoves(board, myPosition);
+    }
+
+    /**
+     * Calculates the moves this piece can make that end on one of the allowed squares
+     *
+     * @param board the board being played on
+     * @param myPosition where this piece is
+     * @param allowedTargets a mask of squares the piece may end on
+     * @return Collection of moves ending on an allowed square
+     */
+    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition, long allowedTargets) {
+        return getCalculator().calculateMoves(board, myPosition, allowedTargets);
+    }
+
+    /**
+     * Calculates every square this piece could move to, ignoring checks
+     *
+     * @param board the board being played on
+     * @param square where this piece is, as a square index
+     * @return a mask of destination squares
+     */
+    public long pieceTargets(ChessBoard board, int square) {
+        return getCalculator().calculateTargets(board, square);
+    }
+
+    /**
+     * Generates the moves this piece can make that end on one of the allowed squares,
+     * as packed {@link Move} ints
+     *
+     * @param board the board being played on
+     * @param square where this piece is, as a square index
+     * @param allowedTargets a mask of squares the piece may end on
+     * @param moves the buffer to write moves into
+     * @param count the number of moves already in the buffer
+     * @return the number of moves in the buffer afterward
+     */
+    public int generateMoves(ChessBoard board, int square, long allowedTargets, int[] moves, int count) {
+        return getCalculator().generateMoves(board, square, allowedTargets, moves, count);
+    }
+
+    /**
+     * @return The move calculator for this piece's type and color.
+     */
+    private PieceCalculator getCalculator() {
+        return PieceCalculator.of(pieceColor, pieceType);
     }
 
     @Override
@@ -1,5 +1,7 @@
 package chess;
 
+import chess.bitboard.Bitboards;
+
 import java.util.Objects;
 
 /**
@@ -10,6 +12,23 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    /**
+     * One shared instance for each square on the board, indexed by {@link Bitboards#square}.
+     */
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    /**
+     * The shared position {@link #of(int, int)} returns for every off-board coordinate,
+     * at row 0, column 0. Use the constructor to keep the exact off-board coordinates.
+     */
+    public static final ChessPosition OFF_BOARD = new ChessPosition(0, 0);
+
+    static {
+        for (int square = 0; square < SQUARES.length; square++) {
+            SQUARES[square] = new ChessPosition(Bitboards.rowOf(square), Bitboards.columnOf(square));
+        }
+    }
+
     private final int row;
     private final int column;
 
@@ -18,6 +37,31 @@ public class ChessPosition {
         this.column = col;
     }
 
+    /**
+     * Gets a position without allocating. Positions on the board come from a shared
+     * cache, and every off-board coordinate maps to {@link #OFF_BOARD}.
+     *
+     * @param row the row, where 1 codes for the bottom row
+     * @param col the column, where 1 codes for the left column
+     * @return the position, or {@link #OFF_BOARD} if it is not on the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (!Bitboards.onBoard(row, col)) {
+            return OFF_BOARD;
+        }
+        return SQUARES[Bitboards.square(row, col)];
+    }
+
+    /**
+     * Gets the shared position for a square.
+     *
+     * @param square a square index, 0 through 63
+     * @return the position
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
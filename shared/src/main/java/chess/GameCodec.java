@@ -0,0 +1,125 @@
+package chess;
+
+import chess.bitboard.Bitboards;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game into a few dozen bytes for storage, and reads it back.
+ * <p>
+ * Version 1 of the format is, in order:
+ * <ul>
+ *     <li>1 byte: the format version</li>
+ *     <li>32 bytes: the 64 squares, two per byte with the lower square in the low nibble,
+ *     each holding its piece's {@link Bitboards#pieceIndex} plus one, or 0 if empty</li>
+ *     <li>1 byte: flags, {@link #FLAG_BLACK_TO_MOVE} and {@link #FLAG_GAME_OVER}</li>
+ *     <li>2 bytes: the halfmove clock</li>
+ *     <li>4 bytes: the fullmove number</li>
+ * </ul>
+ * Numbers are big-endian. The version byte is never {@code '{'}, so encoded games can be
+ * told apart from games stored as JSON.
+ */
+public final class GameCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+    public static final int ENCODED_LENGTH = 40;
+
+    // after the version byte and the 32 bytes of squares
+    private static final int FLAGS_OFFSET = 33;
+
+    static final int FLAG_BLACK_TO_MOVE = 1;
+    static final int FLAG_GAME_OVER = 1 << 1;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @param game The game to encode.
+     * @return The game's position, side to move and clocks, in {@link #ENCODED_LENGTH} bytes.
+     */
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_LENGTH);
+        buffer.put(FORMAT_VERSION);
+
+        ChessBoard board = game.getBoard();
+        byte[] squares = new byte[32];
+        long occupied = board.getOccupiedMask();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            ChessPiece piece = board.getPiece(square);
+            int nibble = Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+            squares[square >> 1] |= (byte) (nibble << ((square & 1) << 2));
+            occupied &= occupied - 1;
+        }
+        buffer.put(squares);
+
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= FLAG_BLACK_TO_MOVE;
+        }
+        if (game.getGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        buffer.put((byte) flags);
+        buffer.putShort((short) game.getHalfmoveClock());
+        buffer.putInt(game.getFullmoveNumber());
+        return buffer.array();
+    }
+
+    /**
+     * @param data A game written by {@link #encode}.
+     * @return A new game in the encoded state.
+     * @throws IllegalArgumentException if the data is not an encoded game.
+     */
+    public static ChessGame decode(byte[] data) {
+        checkFormat(data);
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, ENCODED_LENGTH - 1);
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int packed = buffer.get() & 0xFF;
+            addPiece(board, square, packed & 0xF);
+            addPiece(board, square + 1, packed >>> 4);
+        }
+        board.updateAttackMasks();
+
+        int flags = buffer.get();
+        ChessGame.TeamColor team = (flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int halfmoveClock = buffer.getShort() & 0xFFFF;
+        int fullmoveNumber = buffer.getInt();
+        return new ChessGame(board, team, halfmoveClock, fullmoveNumber, (flags & FLAG_GAME_OVER) != 0);
+    }
+
+    /**
+     * Reads whether an encoded game is over without decoding the rest of it.
+     * @param data A game written by {@link #encode}.
+     * @return True if the game was over when it was encoded.
+     * @throws IllegalArgumentException if the data is not an encoded game.
+     */
+    public static boolean isGameOver(byte[] data) {
+        checkFormat(data);
+        return (data[FLAGS_OFFSET] & FLAG_GAME_OVER) != 0;
+    }
+
+    private static void checkFormat(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("No encoded game.");
+        }
+        if (data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown game format version: " + data[0]);
+        }
+        if (data.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Encoded game has the wrong length: " + data.length);
+        }
+    }
+
+    private static void addPiece(ChessBoard board, int square, int nibble) {
+        if (nibble == 0) {
+            return;
+        }
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Invalid piece in encoded game: " + nibble);
+        }
+        board.setPiece(square, ChessPiece.of(nibble - 1));
+    }
+}
@@ -0,0 +1,201 @@
+package chess;
+
+import chess.bitboard.AttackTables;
+import chess.bitboard.Bitboards;
+import chess.bitboard.MagicAttacks;
+import chess.piececalculators.PieceCalculator;
+
+import java.util.Collection;
+
+/**
+ * Generates only legal moves for one team in one position.
+ * <p>
+ * The pieces giving check and the pieces pinned to the king are found once, when the
+ * generator is created. Each piece's moves are then limited to the squares that
+ * answer any check and keep it on its pin line, so no move has to be played out
+ * and tested for check afterward.
+ */
+final class LegalMoveGenerator {
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor teamColor;
+
+    /**
+     * The king's square, or -1 if the team has no king on the board.
+     */
+    private final int kingSquare;
+    private final long checkers;
+    private final long pinned;
+
+    /**
+     * The squares a non-king piece may move to: anywhere when not in check, the checker
+     * or a square between it and the king when in single check, and nowhere in double check.
+     */
+    private final long checkMask;
+
+    LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor teamColor) {
+        this.board = board;
+        this.teamColor = teamColor;
+        long kings = board.getPieceMask(teamColor, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            kingSquare = -1;
+            checkers = 0;
+            pinned = 0;
+            checkMask = PieceCalculator.ALL_SQUARES;
+            return;
+        }
+        kingSquare = Long.numberOfTrailingZeros(kings);
+        checkers = board.getAttackers(kingSquare, enemy(), board.getOccupiedMask());
+        pinned = findPinned();
+        if (checkers == 0) {
+            checkMask = PieceCalculator.ALL_SQUARES;
+        }
+        else if (Long.bitCount(checkers) == 1) {
+            checkMask = checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+        else {
+            checkMask = 0;
+        }
+    }
+
+    /**
+     * @return True if the team's king is attacked.
+     */
+    boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Gets the legal moves for one of the team's pieces.
+     * @param position The position of the piece.
+     * @param piece The piece at that position.
+     * @return The legal moves for the piece.
+     */
+    Collection<ChessMove> legalMoves(ChessPosition position, ChessPiece piece) {
+        return piece.pieceMoves(board, position, allowedTargets(Bitboards.square(position), piece));
+    }
+
+    /**
+     * Generates every legal move for the team as packed {@link Move} ints.
+     * @param moves The buffer to write moves into, at least {@link Move#MAX_MOVES} long.
+     * @param count The number of moves already in the buffer.
+     * @return The number of moves in the buffer afterward.
+     */
+    int generateMoves(int[] moves, int count) {
+        long pieces = board.getTeamMask(teamColor);
+        while (pieces != 0) {
+            count = generatePieceMoves(Long.numberOfTrailingZeros(pieces), moves, count);
+            pieces &= pieces - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Generates the legal moves for the team's piece on one square as packed {@link Move} ints.
+     * @param square The square of the piece.
+     * @param moves The buffer to write moves into.
+     * @param count The number of moves already in the buffer.
+     * @return The number of moves in the buffer afterward.
+     */
+    int generatePieceMoves(int square, int[] moves, int count) {
+        ChessPiece piece = board.getPiece(square);
+        return piece.generateMoves(board, square, allowedTargets(square, piece), moves, count);
+    }
+
+    /**
+     * Checks a packed move against the team's legal moves. Flags on the move are ignored.
+     * @param move The packed move to check.
+     * @return True if the move is legal.
+     */
+    boolean isLegal(int move) {
+        int from = Move.from(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != teamColor) {
+            return false;
+        }
+        long targets = piece.pieceTargets(board, from) & allowedTargets(from, piece);
+        if ((targets & (1L << Move.to(move))) == 0) {
+            return false;
+        }
+        int[] pieceMoves = new int[Long.bitCount(targets) * 4];
+        int count = piece.generateMoves(board, from, targets, pieceMoves, 0);
+        for (int i = 0; i < count; i++) {
+            if (Move.sameMove(pieceMoves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if any of the team's pieces has a legal move.
+     */
+    boolean hasLegalMove() {
+        long pieces = board.getTeamMask(teamColor);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(square);
+            if ((piece.pieceTargets(board, square) & allowedTargets(square, piece)) != 0) {
+                return true;
+            }
+            pieces &= pieces - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the squares a piece may legally end its move on.
+     * @param square The square the piece is on.
+     * @param piece The piece being moved.
+     * @return A mask of allowed destination squares.
+     */
+    private long allowedTargets(int square, ChessPiece piece) {
+        if (kingSquare < 0) {
+            return PieceCalculator.ALL_SQUARES;
+        }
+        if (square == kingSquare) {
+            if (checkers == 0) {
+                return ~board.getAttackedSquares(enemy());
+            }
+            // look through the king so it cannot step back along a checking ray
+            long occupied = board.getOccupiedMask() & ~(1L << kingSquare);
+            return ~board.getAttackedSquares(enemy(), occupied);
+        }
+        long allowed = checkMask;
+        if ((pinned & (1L << square)) != 0) {
+            allowed &= AttackTables.line(kingSquare, square);
+        }
+        return allowed;
+    }
+
+    /**
+     * Finds the team's pieces that are the only blocker between their king and an enemy slider.
+     * @return A mask of pinned pieces.
+     */
+    private long findPinned() {
+        ChessGame.TeamColor enemy = enemy();
+        long queens = board.getPieceMask(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (MagicAttacks.rookAttacks(kingSquare, 0)
+                & (board.getPieceMask(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (MagicAttacks.bishopAttacks(kingSquare, 0)
+                & (board.getPieceMask(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long ownPieces = board.getTeamMask(teamColor);
+        long result = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long blockers = AttackTables.between(kingSquare, sniper) & board.getOccupiedMask();
+            if (Long.bitCount(blockers) == 1 && (blockers & ownPieces) != 0) {
+                result |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return The color of the opposing team.
+     */
+    private ChessGame.TeamColor enemy() {
+        return teamColor == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,114 @@
+package chess;
+
+import chess.bitboard.Bitboards;
+
+/**
+ * Packs a move into a single int so move generation does not allocate.
+ * <p>
+ * Bits 0-5 hold the starting square and bits 6-11 the ending square, as {@link Bitboards}
+ * indexes. Bits 12-14 hold the promotion piece's {@link ChessPiece.PieceType#ordinal()}
+ * plus one, or 0 for no promotion. The bits above that are flags describing the move.
+ * {@link ChessMove} objects are only created from packed moves at the public API boundary.
+ */
+public final class Move {
+
+    /**
+     * More than the most legal moves possible in any position, for sizing move buffers.
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * Set on moves that capture a piece.
+     */
+    public static final int CAPTURE = 1 << 15;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int IDENTITY_MASK = (1 << 15) - 1;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {}
+
+    /**
+     * Packs a move.
+     * @param from The starting square.
+     * @param to The ending square.
+     * @param promotion The type to promote to, or null.
+     * @param flags Any flags, such as {@link #CAPTURE}.
+     * @return The packed move.
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << TO_SHIFT) | (promotionBits << PROMOTION_SHIFT) | flags;
+    }
+
+    /**
+     * Packs a {@link ChessMove}. The result has no flags set, so compare it to generated
+     * moves with {@link #sameMove}.
+     * @param move The move to pack.
+     * @return The packed move.
+     */
+    public static int fromChessMove(ChessMove move) {
+        return encode(
+                Bitboards.square(move.getStartPosition()),
+                Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(),
+                0
+        );
+    }
+
+    /**
+     * Unpacks a move into a {@link ChessMove}.
+     * @param move The packed move.
+     * @return A new ChessMove for it.
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.of(from(move)), ChessPosition.of(to(move)), promotion(move));
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The starting square.
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The ending square.
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The type to promote to, or null if the move is not a promotion.
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return promotionBits == 0 ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    /**
+     * @param move A packed move.
+     * @return True if the move captures a piece.
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Compares the squares and promotion of two moves, ignoring flags.
+     * @param first A packed move.
+     * @param second Another packed move.
+     * @return True if both describe the same move.
+     */
+    public static boolean sameMove(int first, int second) {
+        return (first & IDENTITY_MASK) == (second & IDENTITY_MASK);
+    }
+}
@@ -0,0 +1,218 @@
+package chess;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts perft on a {@link ForkJoinPool}, so deep counts can check the move generator
+ * in a reasonable time.
+ * <p>
+ * The tree is split into one task per move near the root, and the pool's work stealing
+ * spreads those over its threads. Below {@link #SPLIT_DEPTH} each task counts its subtree
+ * alone. Subtree counts are cached by position and depth in a table shared by all threads,
+ * so transpositions are only counted once. The cache works like the engine's transposition
+ * table: each entry stores its count and its key XORed with that count, so concurrent
+ * writers never need a lock and a torn entry reads as a miss.
+ */
+public class ParallelPerft {
+
+    /**
+     * Subtrees at most this deep are counted by a single task rather than split further.
+     */
+    static final int SPLIT_DEPTH = 3;
+
+    private static final int WARMUP_RUNS = 3;
+
+    private static final long[] DEPTH_KEYS = new long[64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        for (int i = 0; i < DEPTH_KEYS.length; i++) {
+            DEPTH_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private final ChessGame game;
+    private final int parallelism;
+    private final long[] cache;
+    private final long cacheMask;
+
+    /**
+     * Creates a parallel perft counter for the current position of a game. The game itself
+     * is not modified.
+     *
+     * @param game the game whose position to count from
+     * @param parallelism the number of threads to count on
+     * @param cacheMegabytes the size of the subtree count cache, or 0 for no cache
+     */
+    public ParallelPerft(ChessGame game, int parallelism, int cacheMegabytes) {
+        this.game = copyGame(game);
+        this.parallelism = parallelism;
+        long entries = cacheMegabytes <= 0 ? 0 : Long.highestOneBit((long) cacheMegabytes * 1024 * 1024 / 16);
+        entries = Math.min(entries, 1L << 29);
+        cache = new long[(int) entries * 2];
+        cacheMask = entries - 1;
+    }
+
+    /**
+     * Counts the positions reachable in exactly the given number of moves.
+     *
+     * @param depth the number of moves (plies) to search, at most 63
+     * @return the number of leaf positions
+     * @throws IllegalArgumentException if the depth is negative or over 63
+     */
+    public long perft(int depth) {
+        if (depth < 0 || depth >= DEPTH_KEYS.length) {
+            throw new IllegalArgumentException("Parallel perft depth must be from 0 to "
+                    + (DEPTH_KEYS.length - 1) + ": " + depth);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new PerftTask(copyGame(game), depth));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame position;
+        private final int depth;
+
+        PerftTask(ChessGame position, int depth) {
+            this.position = position;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) {
+                return countNodes(position, depth, new int[Math.max(depth, 1)][Move.MAX_MOVES], 0);
+            }
+            long key = cacheKey(position, depth);
+            long cached = probe(key);
+            if (cached >= 0) {
+                return cached;
+            }
+            int[] moves = new int[Move.MAX_MOVES];
+            int count = position.generateMoves(moves);
+            PerftTask[] children = new PerftTask[count];
+            for (int i = 0; i < count; i++) {
+                ChessGame child = copyGame(position);
+                child.doMove(moves[i]);
+                children[i] = new PerftTask(child, depth - 1);
+            }
+            invokeAll(children);
+            long nodes = 0;
+            for (PerftTask child : children) {
+                nodes += child.join();
+            }
+            store(key, nodes);
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts leaf positions on one thread, using and filling the cache.
+     * @param position The game to play moves on, which is left as it was found.
+     * @param depth The number of plies left to search.
+     * @param moveBuffers One move buffer per ply.
+     * @param ply The number of plies already played, which picks the move buffer.
+     * @return The number of leaf positions.
+     */
+    private long countNodes(ChessGame position, int depth, int[][] moveBuffers, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[ply];
+        int count = position.generateMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long key = cacheKey(position, depth);
+        long cached = probe(key);
+        if (cached >= 0) {
+            return cached;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.doMove(moves[i]);
+            nodes += countNodes(position, depth - 1, moveBuffers, ply + 1);
+            position.undoMove();
+        }
+        store(key, nodes);
+        return nodes;
+    }
+
+    private static long cacheKey(ChessGame position, int depth) {
+        return position.getZobristKey() ^ DEPTH_KEYS[depth];
+    }
+
+    /**
+     * @param key The position and depth key.
+     * @return The cached count, or -1 if there is none.
+     */
+    private long probe(long key) {
+        if (cache.length == 0) {
+            return -1;
+        }
+        int slot = (int) (key & cacheMask) << 1;
+        long nodes = cache[slot + 1];
+        return (cache[slot] ^ nodes) == key ? nodes : -1;
+    }
+
+    private void store(long key, long nodes) {
+        if (cache.length == 0) {
+            return;
+        }
+        int slot = (int) (key & cacheMask) << 1;
+        cache[slot] = key ^ nodes;
+        cache[slot + 1] = nodes;
+    }
+
+    /**
+     * @return A copy of the game's whole state, clocks and game over flag included, as {@link Perft} counts from.
+     */
+    private static ChessGame copyGame(ChessGame game) {
+        return new BoardSnapshot(game).toGame();
+    }
+
+    /**
+     * Counts perft from the starting position on one thread and then on every core,
+     * reporting the speed of each and how well the count scales.
+     * <p>
+     * Usage: {@code java chess.ParallelPerft [depth] [threads] [cache MB]}
+     *
+     * @param args an optional depth, 6 by default, thread count, every core by default,
+     *             and cache size, 256 MB by default
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int cacheMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        // warm up the JIT on both code paths so the single-thread run is not timed cold
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            new ParallelPerft(new ChessGame(), 1, 0).perft(Math.min(depth, 5));
+            new ParallelPerft(new ChessGame(), threads, 0).perft(Math.min(depth, 5));
+        }
+        double singleSeconds = timePerft(depth, 1, cacheMegabytes);
+        if (threads > 1) {
+            double parallelSeconds = timePerft(depth, threads, cacheMegabytes);
+            double speedup = singleSeconds / parallelSeconds;
+            System.out.printf("Speedup: %.2fx%n", speedup);
+            System.out.printf("Scaling efficiency: %.0f%%%n", 100 * speedup / threads);
+        }
+    }
+
+    private static double timePerft(int depth, int threads, int cacheMegabytes) {
+        ParallelPerft perft = new ParallelPerft(new ChessGame(), threads, cacheMegabytes);
+        long start = System.nanoTime();
+        long nodes = perft.perft(depth);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Threads: %d, Depth: %d, Nodes: %d, Time: %.3f s, Nodes/second: %.0f%n",
+                threads, depth, nodes, seconds, nodes / seconds);
+        return seconds;
+    }
+}
@@ -0,0 +1,158 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree from a position to a fixed depth.
+ * <p>
+ * Perft counts have well known reference values, so they check the move generator
+ * for correctness, and the nodes per second they run at measure its speed.
+ * Note that the rules here do not include castling or en passant, so counts only
+ * match published values for positions and depths where neither is possible.
+ */
+public class Perft {
+
+    private final ChessGame game;
+
+    /**
+     * One move buffer per ply, reused for every node at that ply.
+     */
+    private int[][] moveBuffers = new int[0][];
+
+    /**
+     * Creates a perft counter for the current position of a game. The game itself
+     * is not modified.
+     *
+     * @param game the game whose position to count from
+     */
+    public Perft(ChessGame game) {
+        this.game = new BoardSnapshot(game).toGame();
+    }
+
+    /**
+     * Counts the positions reachable in exactly the given number of moves.
+     *
+     * @param depth the number of moves (plies) to search
+     * @return the number of leaf positions
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public long perft(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Perft depth cannot be negative: " + depth);
+        }
+        ensureBuffers(depth);
+        return countNodes(depth, 0);
+    }
+
+    /**
+     * Counts the positions reachable in the given number of moves, split up by the
+     * first move played. Comparing a divide against another move generator's narrows
+     * a wrong count down to the move that causes it.
+     *
+     * @param depth the number of moves (plies) to search, at least 1
+     * @return the leaf count below each legal first move, in generation order
+     * @throws IllegalArgumentException if the depth is less than 1
+     */
+    public Map<ChessMove, Long> perftDivide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Perft divide needs a depth of at least 1: " + depth);
+        }
+        ensureBuffers(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        int[] moves = moveBuffers[0];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            counts.put(Move.toChessMove(moves[i]), countNodes(depth - 1, 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Recursively counts leaf positions, counting the last ply's moves without playing them.
+     * @param depth The number of plies left to search.
+     * @param ply The number of plies already played, which picks the move buffer.
+     * @return The number of leaf positions.
+     */
+    private long countNodes(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            nodes += countNodes(depth - 1, ply + 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Makes sure there is a move buffer for every ply of a search.
+     * @param depth The depth about to be searched.
+     */
+    private void ensureBuffers(int depth) {
+        if (moveBuffers.length < depth) {
+            moveBuffers = new int[depth][Move.MAX_MOVES];
+        }
+    }
+
+    /**
+     * Runs a perft divide and reports the speed.
+     * <p>
+     * Usage: {@code java chess.Perft [depth] [fen]}
+     *
+     * @param args an optional search depth, 5 by default, and position as FEN, the
+     *             starting position by default
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        ChessGame game = args.length > 1 ? ChessGame.fromFen(String.join(" ", Arrays.copyOfRange(args, 1, args.length)))
+                : new ChessGame();
+        Perft perft = new Perft(game);
+        long start = System.nanoTime();
+        Map<ChessMove, Long> divide = perft.perftDivide(depth);
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : divide.entrySet()) {
+            System.out.println(moveString(entry.getKey()) + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Depth: " + depth);
+        System.out.println("Nodes: " + total);
+        System.out.printf("Time: %.3f s%n", elapsed / 1e9);
+        System.out.printf("Nodes/second: %.0f%n", total / (elapsed / 1e9));
+    }
+
+    /**
+     * Formats a move in coordinate notation, such as e2e4 or a7a8q.
+     * @param move The move to format.
+     * @return The move as text.
+     */
+    static String moveString(ChessMove move) {
+        String text = squareString(move.getStartPosition()) + squareString(move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            text += switch (move.getPromotionPiece()) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "";
+            };
+        }
+        return text;
+    }
+
+    private static String squareString(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1) + Integer.toString(position.getRow());
+    }
+}
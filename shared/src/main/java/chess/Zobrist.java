@@ -0,0 +1,45 @@
+package chess;
+
+import chess.bitboard.Bitboards;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on the board and a side key when
+ * black is to move, so adding, moving or capturing a piece only takes a few XORs to
+ * update. The keys come from a fixed seed so they are the same in every run.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x2400C4E55L;
+
+    private static final long[][] PIECE_KEYS = new long[Bitboards.PIECE_KINDS][64];
+
+    /**
+     * Mixed into a game's key when black is to move.
+     */
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < keys.length; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param piece The piece on the square.
+     * @param square The square, as a {@link Bitboards} index.
+     * @return The key for that piece standing on that square.
+     */
+    static long pieceKey(ChessPiece piece, int square) {
+        return PIECE_KEYS[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+}
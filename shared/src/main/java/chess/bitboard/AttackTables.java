@@ -0,0 +1,108 @@
+package chess.bitboard;
+
+import chess.ChessGame;
+
+/**
+ * Precomputed attack masks for the non-sliding pieces, plus the squares lying between
+ * and along lines through pairs of squares. Built once, when this class is loaded.
+ */
+public final class AttackTables {
+
+    private static final int[][] KNIGHT_OFFSETS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+    private static final int[][] KING_OFFSETS = {{1, 0}, {1, 1}, {1, -1}, {0, 1}, {0, -1}, {-1, 0}, {-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetMask(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = offsetMask(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = offsetMask(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = offsetMask(square, new int[][]{{-1, 1}, {-1, -1}});
+        }
+        for (int from = 0; from < 64; from++) {
+            long fromBit = 1L << from;
+            for (int to = 0; to < 64; to++) {
+                long toBit = 1L << to;
+                if (from == to) {
+                    continue;
+                }
+                if ((MagicAttacks.rookAttacks(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = MagicAttacks.rookAttacks(from, toBit) & MagicAttacks.rookAttacks(to, fromBit);
+                    LINE[from][to] = (MagicAttacks.rookAttacks(from, 0) & MagicAttacks.rookAttacks(to, 0)) | fromBit | toBit;
+                }
+                else if ((MagicAttacks.bishopAttacks(from, 0) & toBit) != 0) {
+                    BETWEEN[from][to] = MagicAttacks.bishopAttacks(from, toBit) & MagicAttacks.bishopAttacks(to, fromBit);
+                    LINE[from][to] = (MagicAttacks.bishopAttacks(from, 0) & MagicAttacks.bishopAttacks(to, 0)) | fromBit | toBit;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {}
+
+    /**
+     * @param square The square a knight is on.
+     * @return The squares the knight attacks.
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @param square The square a king is on.
+     * @return The squares the king attacks.
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param color The color of the pawn.
+     * @param square The square the pawn is on.
+     * @return The squares the pawn attacks diagonally.
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @param from One square.
+     * @param to Another square.
+     * @return The squares strictly between the two, or 0 if they do not share a rank, file or diagonal.
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @param from One square.
+     * @param to Another square.
+     * @return The full rank, file or diagonal through both squares, or 0 if they do not share one.
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Builds a mask from a fixed set of row and column offsets, dropping any that leave the board.
+     * @param square The starting square.
+     * @param offsets Pairs of row and column offsets.
+     * @return The mask of reachable squares.
+     */
+    private static long offsetMask(int square, int[][] offsets) {
+        long mask = 0;
+        for (int[] offset : offsets) {
+            int row = Bitboards.rowOf(square) + offset[0];
+            int col = Bitboards.columnOf(square) + offset[1];
+            if (Bitboards.onBoard(row, col)) {
+                mask |= 1L << Bitboards.square(row, col);
+            }
+        }
+        return mask;
+    }
+}
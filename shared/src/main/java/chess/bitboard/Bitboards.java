@@ -0,0 +1,76 @@
+package chess.bitboard;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Helpers for working with 64-bit board masks.
+ * <p>
+ * Square 0 is a1 (row 1, column 1), square 7 is h1 and square 63 is h8, so a square's
+ * bit is {@code 1L << ((row - 1) * 8 + (column - 1))}.
+ */
+public final class Bitboards {
+
+    /**
+     * The number of distinct colored pieces, used to size per-piece mask arrays.
+     */
+    public static final int PIECE_KINDS = 12;
+
+    private Bitboards() {}
+
+    /**
+     * Gets the square index for a row and column.
+     * @param row The row, 1 through 8.
+     * @param column The column, 1 through 8.
+     * @return The square index, 0 through 63.
+     */
+    public static int square(int row, int column) {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    /**
+     * Gets the square index for a position on the board.
+     * @param position The position, which must be on the board.
+     * @return The square index, 0 through 63.
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @param square A square index.
+     * @return The row of the square, 1 through 8.
+     */
+    public static int rowOf(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @param square A square index.
+     * @return The column of the square, 1 through 8.
+     */
+    public static int columnOf(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * Checks whether a row and column are on the board.
+     * @param row The row to check.
+     * @param column The column to check.
+     * @return True if both are between 1 and 8.
+     */
+    public static boolean onBoard(int row, int column) {
+        return row >= 1 && row <= 8 && column >= 1 && column <= 8;
+    }
+
+    /**
+     * Gets the index of a colored piece into a per-piece mask array.
+     * @param color The color of the piece.
+     * @param type The type of the piece.
+     * @return An index, 0 through 11.
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -0,0 +1,183 @@
+package chess.bitboard;
+
+/**
+ * Precomputed sliding-piece attack tables using magic bitboards.
+ * <p>
+ * For each square, the occupancy of the squares a rook or bishop could be blocked on
+ * is multiplied by a magic constant and shifted down to an index into a table of
+ * attack masks. The tables are built once, when this class is loaded, so a sliding
+ * attack lookup is a mask, a multiply, a shift and an array read.
+ */
+public final class MagicAttacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MAGICS = {
+            0x0080008020400010L, 0x8040002000100048L, 0x0880082004801000L, 0x0880080004811000L,
+            0x0200209004484200L, 0x1480040080090600L, 0x45000A0001940100L, 0x0100003286034100L,
+            0x0821802080014000L, 0x8080400050002000L, 0x0201001020010040L, 0x0143002100500218L,
+            0x4045000488001102L, 0x0022001009020004L, 0x2203000A00070004L, 0x0101000081000042L,
+            0x0000808000400030L, 0x0100810020400100L, 0x0000828020001000L, 0x0002020010400820L,
+            0x0420050030280100L, 0x1221818002000400L, 0x00020400A8011022L, 0x3841020004208041L,
+            0x0040802280004005L, 0x0410400080201084L, 0x8840410100102000L, 0x408100210010000AL,
+            0x0080050100080010L, 0x4804008080040200L, 0x019A00E200080104L, 0x0014205200041081L,
+            0x40028040058001A5L, 0x1140100020A00800L, 0x0001802006801006L, 0x8480100082800801L,
+            0x4010041101000800L, 0x0000020080800400L, 0x0200489004000122L, 0x0004040042003081L,
+            0x0020204002818009L, 0x0150002010404000L, 0x0083014020050010L, 0x0250040008004040L,
+            0x0001000408010010L, 0x0802008004008002L, 0x88101008010400C2L, 0x1100005081020004L,
+            0x0022210C80004900L, 0xC001004A04228200L, 0x00A0200040110100L, 0xA000082100100100L,
+            0x6408008004000880L, 0x2100020080040080L, 0x0A08920841101400L, 0x0000011C0040A200L,
+            0x010A008020401102L, 0x0001002010804001L, 0x02804119A0010013L, 0x0230201000080501L,
+            0x8042011028A02402L, 0xC80100040092080DL, 0x0000412810088604L, 0x2100092091040042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0E04082840408200L, 0x0104080800508012L, 0x2808024403234080L, 0x0008208030008004L,
+            0x2002021054400290L, 0x0C12221041802000L, 0x5020880108200010L, 0x1010210410040240L,
+            0x0421904408480045L, 0x4850480284284200L, 0x950122020042040CL, 0x80B0211041080000L,
+            0x0000045040008884L, 0x9014010402C00800L, 0x0012008410190484L, 0x8401030090902800L,
+            0x1E8B00100210040CL, 0x1208A02028012050L, 0xC910001800801170L, 0xC008042104130008L,
+            0x1202004422010503L, 0xC001004210108408L, 0x0100801202412090L, 0x0049000029080200L,
+            0x4010100240040140L, 0x001D500004101209L, 0x0000821010480200L, 0x2012008018008440L,
+            0x0010028044008410L, 0x0341110042004109L, 0x800C006061081210L, 0xA104044100864409L,
+            0x8102082008042004L, 0x0425100901302100L, 0x0180840401404040L, 0x100A020080080080L,
+            0x000C040400013100L, 0x2210021080063000L, 0x829011004C010402L, 0x0341084080120210L,
+            0x8008010820008850L, 0x0C06420820A00490L, 0x2C09840241085804L, 0x10220C2214020801L,
+            0x40012000A4022480L, 0x28A8200800301280L, 0x0002324222100400L, 0x0030008A00588081L,
+            0x429400C410085080L, 0x8000220202204000L, 0x0010802C02080040L, 0x0000000042022100L,
+            0x0000004008220010L, 0x1008206012008800L, 0x8009208414004000L, 0x101002020C082000L,
+            0x100180805320201EL, 0x800020404A109006L, 0x0401090021080889L, 0x2008204861420884L,
+            0x20800C02A0202480L, 0x0458009020210104L, 0x8020208801282082L, 0x0110245004005011L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        ROOK_TABLE = buildTable(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_TABLE = buildTable(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicAttacks() {}
+
+    /**
+     * Gets the squares a rook attacks, including the first blocker in each direction.
+     * @param square The square the rook is on.
+     * @param occupied Every occupied square on the board.
+     * @return A mask of attacked squares.
+     */
+    public static long rookAttacks(int square, long occupied) {
+        long relevant = occupied & ROOK_MASKS[square];
+        return ROOK_TABLE[ROOK_OFFSETS[square] + (int) ((relevant * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a bishop attacks, including the first blocker in each direction.
+     * @param square The square the bishop is on.
+     * @param occupied Every occupied square on the board.
+     * @return A mask of attacked squares.
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        long relevant = occupied & BISHOP_MASKS[square];
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + (int) ((relevant * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a queen attacks, including the first blocker in each direction.
+     * @param square The square the queen is on.
+     * @param occupied Every occupied square on the board.
+     * @return A mask of attacked squares.
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Fills in the masks, shifts and offsets for one piece and builds its attack table.
+     * @param directions The directions the piece slides in.
+     * @param magics The magic multiplier for each square.
+     * @param masks Filled with the blocker mask for each square.
+     * @param shifts Filled with the index shift for each square.
+     * @param offsets Filled with each square's starting index into the table.
+     * @return The attack table shared by all squares.
+     */
+    private static long[] buildTable(int[][] directions, long[] magics, long[] masks, int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = blockerMask(square, directions);
+            int bits = Long.bitCount(masks[square]);
+            shifts[square] = 64 - bits;
+            offsets[square] = size;
+            size += 1 << bits;
+        }
+        long[] table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            long subset = 0;
+            // walk every subset of the blocker mask
+            do {
+                int index = offsets[square] + (int) ((subset * magics[square]) >>> shifts[square]);
+                long attacks = slidingAttacks(square, subset, directions);
+                if (table[index] != 0 && table[index] != attacks) {
+                    throw new IllegalStateException("Magic number collision on square " + square);
+                }
+                table[index] = attacks;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    /**
+     * Gets the squares whose occupancy can change a slider's attacks. The last square in
+     * each direction never blocks anything further, so it is left out.
+     * @param square The square the piece is on.
+     * @param directions The directions the piece slides in.
+     * @return The blocker mask for the square.
+     */
+    private static long blockerMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int col = Bitboards.columnOf(square) + direction[1];
+            while (Bitboards.onBoard(row + direction[0], col + direction[1])) {
+                mask |= 1L << Bitboards.square(row, col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Walks each ray one square at a time. Only used while building the tables.
+     * @param square The square the piece is on.
+     * @param occupied The occupied squares.
+     * @param directions The directions the piece slides in.
+     * @return The attacked squares.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int col = Bitboards.columnOf(square) + direction[1];
+            while (Bitboards.onBoard(row, col)) {
+                long bit = 1L << Bitboards.square(row, col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
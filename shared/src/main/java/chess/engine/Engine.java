@@ -0,0 +1,422 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds a good move for the team to move with an iteratively deepened negamax
+ * alpha-beta search, finished off with a quiescence search over captures.
+ * <p>
+ * Moves are generated into per-ply buffers and played on a private copy of the game
+ * with {@link ChessGame#doMove(int)} and {@link ChessGame#undoMove()}, so a search does
+ * not allocate once its buffers exist. An engine keeps those buffers between searches
+ * and is not safe to share between threads, though engines may share one
+ * {@link TranspositionTable}.
+ */
+public class Engine {
+
+    /**
+     * The score of delivering mate right now. Mates further away score less.
+     */
+    public static final int MATE_SCORE = 100_000;
+
+    /**
+     * The most plies a search can reach, counting quiescence.
+     */
+    static final int MAX_PLY = 64;
+
+    /**
+     * The transposition table size used by {@link #Engine()}, in megabytes.
+     */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private static final int INFINITY = MATE_SCORE + 1;
+
+    /**
+     * How many nodes to visit between looks at the clock.
+     */
+    private static final int CHECK_INTERVAL = 2048;
+
+    private final int[][] moveBuffers = new int[MAX_PLY][Move.MAX_MOVES];
+    private final int[][] orderBuffers = new int[MAX_PLY][Move.MAX_MOVES];
+    private final TranspositionTable table;
+
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+
+    /**
+     * The best root move of the iteration in progress among those searched in full, and its
+     * score, so a search stopped partway through an iteration still has a move to return.
+     */
+    private int rootBestMove;
+    private int rootBestScore;
+    private AtomicBoolean stopSignal;
+    private boolean stopped;
+
+    /**
+     * Creates an engine with its own transposition table of {@link #DEFAULT_TABLE_MEGABYTES}.
+     */
+    public Engine() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates an engine that caches results in the given table.
+     *
+     * @param table the transposition table to use, which may be shared with other engines
+     */
+    public Engine(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * @return The transposition table this engine uses
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Searches the current position of a game. The game itself is not modified.
+     *
+     * @param position the game whose position to search
+     * @param limits when to stop searching
+     * @return the best move found and its score
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        table.newSearch();
+        return search(position, limits, 1, null);
+    }
+
+    /**
+     * Searches the current position of a game as one of several engines sharing a table.
+     * The caller is responsible for {@link TranspositionTable#newSearch()}.
+     * @param position The game whose position to search.
+     * @param limits When to stop searching.
+     * @param firstDepth The depth of the first iteration.
+     * @param stopSignal Set by another thread to stop the search at once, or null.
+     * @return The best move found and its score.
+     */
+    SearchResult search(ChessGame position, SearchLimits limits, int firstDepth, AtomicBoolean stopSignal) {
+        long start = System.nanoTime();
+        game = copyGame(position);
+        this.stopSignal = stopSignal;
+        nodes = 0;
+        nodeLimit = limits.maxNodes();
+        deadline = limits.maxTimeMillis() > (Long.MAX_VALUE - start) / 1_000_000 ?
+                Long.MAX_VALUE : start + limits.maxTimeMillis() * 1_000_000;
+        stopped = false;
+
+        int[] rootMoves = moveBuffers[0];
+        int count = game.generateMoves(rootMoves);
+        int bestMove = 0;
+        int bestScore = count == 0 ? terminalScore(0) : 0;
+        int completedDepth = 0;
+        int maxDepth = Math.min(limits.maxDepth(), MAX_PLY - 1);
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth && count > 0; depth++) {
+            int score = searchRoot(depth, count, bestMove);
+            if (stopped) {
+                // the previous best is searched first, so any move that beat it is better at this depth
+                if (rootBestMove != 0) {
+                    bestMove = rootBestMove;
+                    bestScore = rootBestScore;
+                }
+                break;
+            }
+            bestMove = rootMoves[0];
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE_SCORE - MAX_PLY) {
+                break;
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        ChessMove move = bestMove == 0 ? null : Move.toChessMove(bestMove);
+        return new SearchResult(move, bestScore, completedDepth, nodes, elapsed,
+                new long[]{nodes});
+    }
+
+    /**
+     * Searches every root move to a depth, leaving the best one first in the root buffer
+     * so that the next iteration tries it first. The best move so far is kept in
+     * {@link #rootBestMove} as the search goes.
+     * @param depth The depth to search, in plies.
+     * @param count The number of root moves.
+     * @param previousBest The best move of the last iteration, or 0.
+     * @return The score of the best move.
+     */
+    private int searchRoot(int depth, int count, int previousBest) {
+        int[] moves = moveBuffers[0];
+        orderMoves(moves, orderBuffers[0], count, previousBest);
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        rootBestMove = 0;
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+                rootBestMove = moves[i];
+                rootBestScore = score;
+            }
+        }
+        int best = moves[bestIndex];
+        System.arraycopy(moves, 0, moves, 1, bestIndex);
+        moves[0] = best;
+        table.store(game.getZobristKey(), best, alpha, depth, TranspositionTable.EXACT);
+        return alpha;
+    }
+
+    /**
+     * Scores the position for the team to move with a fail-soft alpha-beta search.
+     * @param depth The plies left before quiescence search takes over.
+     * @param alpha The score the team to move is already sure of.
+     * @param beta The score the opponent is already sure of holding it to.
+     * @param ply The number of plies from the root.
+     * @return The score of the position.
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (visitNode()) {
+            return 0;
+        }
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        int[] moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        if (count == 0) {
+            return terminalScore(ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(game.getBoard(), game.getTeamTurn());
+        }
+        int[] order = orderBuffers[ply];
+        orderMoves(moves, order, count, hashMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bound == TranspositionTable.UPPER_BOUND ? 0 : bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Plays out captures until the position is quiet, so that the search never stops
+     * in the middle of an exchange. The team to move may stand pat instead of capturing,
+     * unless it is in check, in which case every evasion is searched.
+     * @param alpha The score the team to move is already sure of.
+     * @param beta The score the opponent is already sure of holding it to.
+     * @param ply The number of plies from the root.
+     * @return The score of the position.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if (visitNode()) {
+            return 0;
+        }
+        int[] moves = moveBuffers[ply];
+        int count = game.generateMoves(moves);
+        if (count == 0) {
+            return terminalScore(ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(game.getBoard(), game.getTeamTurn());
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = Evaluator.evaluate(game.getBoard(), game.getTeamTurn());
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        int[] order = orderBuffers[ply];
+        orderMoves(moves, order, count, 0);
+        for (int i = 0; i < count; i++) {
+            if (!inCheck && order[i] <= 0) {
+                // moves are ordered, so only quiet moves are left
+                break;
+            }
+            game.doMove(moves[i]);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Converts a mate score from distance to the root into distance from this node, so a
+     * stored mate stays correct when the position is reached at a different ply.
+     * @param score The score to store.
+     * @param ply The number of plies from the root.
+     * @return The score as it should be stored.
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Undoes {@link #scoreToTable} for a score read back at a given ply.
+     * @param score The stored score.
+     * @param ply The number of plies from the root.
+     * @return The score relative to the root.
+     */
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * @param ply The number of plies from the root.
+     * @return The score for a team with no legal moves: mated if in check, otherwise stalemate.
+     */
+    private int terminalScore(int ply) {
+        return game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE + ply : 0;
+    }
+
+    /**
+     * Counts a node and checks the search limits and stop signal every {@link #CHECK_INTERVAL} nodes.
+     * @return True if the search should stop.
+     */
+    private boolean visitNode() {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            if (stopSignal != null && stopSignal.get()) {
+                stopped = true;
+            }
+            else if (nodes >= nodeLimit || System.nanoTime() >= deadline) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Sorts moves so the likeliest best ones are searched first: a preferred move, then
+     * captures by most valuable victim and least valuable attacker (MVV-LVA) and
+     * promotions, then quiet moves.
+     * @param moves The moves to sort.
+     * @param order Filled with each sorted move's ordering score; quiet moves score 0.
+     * @param count The number of moves.
+     * @param preferred A move to put first, or 0.
+     */
+    private void orderMoves(int[] moves, int[] order, int count, int preferred) {
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = 0;
+            if (Move.isCapture(move)) {
+                ChessPiece victim = board.getPiece(Move.to(move));
+                ChessPiece attacker = board.getPiece(Move.from(move));
+                score += Evaluator.PIECE_VALUES[victim.getPieceType().ordinal()] * 10
+                        - Evaluator.PIECE_VALUES[attacker.getPieceType().ordinal()] / 10 + 1;
+            }
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            if (promotion != null) {
+                score += Evaluator.PIECE_VALUES[promotion.ordinal()];
+            }
+            if (preferred != 0 && Move.sameMove(move, preferred)) {
+                score = Integer.MAX_VALUE;
+            }
+            order[i] = score;
+        }
+        // insertion sort, descending; move lists are short and mostly quiet
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = order[i];
+            int j = i - 1;
+            while (j >= 0 && order[j] < score) {
+                moves[j + 1] = moves[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            order[j + 1] = score;
+        }
+    }
+
+    /**
+     * @param position The game to copy.
+     * @return A new game in the same position, to search without touching the original.
+     */
+    private static ChessGame copyGame(ChessGame position) {
+        ChessGame copy = new ChessGame();
+        try {
+            copy.setBoard((ChessBoard) position.getBoard().clone());
+        }
+        catch (CloneNotSupportedException e) {
+            throw new RuntimeException("Unable to copy board for search.", e);
+        }
+        copy.setTeamTurn(position.getTeamTurn());
+        return copy;
+    }
+}
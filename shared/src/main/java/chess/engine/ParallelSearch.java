@@ -0,0 +1,136 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Searches one position on several threads at once using Lazy SMP: every thread runs
+ * its own {@link Engine} over the same position, and they share nothing but a
+ * {@link TranspositionTable}. Helper threads fill the table with results the main search
+ * then finds, and half of them start a ply deeper so they tend to be ahead of it.
+ * <p>
+ * The calling thread runs the main search, whose move and score are the result. Helper
+ * threads are kept between searches; {@link #close()} stops them. A parallel search is
+ * not safe to use from more than one thread at a time.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Engine mainEngine;
+    private final Engine[] helperEngines;
+    private final ExecutorService helpers;
+
+    /**
+     * Creates a parallel search with its own transposition table.
+     *
+     * @param threads the number of search threads, including the calling thread
+     * @param tableMegabytes the size of the shared transposition table
+     */
+    public ParallelSearch(int threads, int tableMegabytes) {
+        this(threads, new TranspositionTable(tableMegabytes));
+    }
+
+    /**
+     * Creates a parallel search sharing an existing transposition table.
+     *
+     * @param threads the number of search threads, including the calling thread
+     * @param table the transposition table every thread shares
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread.");
+        }
+        this.table = table;
+        mainEngine = new Engine(table);
+        helperEngines = new Engine[threads - 1];
+        for (int i = 0; i < helperEngines.length; i++) {
+            helperEngines[i] = new Engine(table);
+        }
+        helpers = helperEngines.length == 0 ? null : Executors.newFixedThreadPool(helperEngines.length, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The number of search threads, including the calling thread
+     */
+    public int getThreadCount() {
+        return helperEngines.length + 1;
+    }
+
+    /**
+     * Empties the shared transposition table, so the next search starts from nothing.
+     */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * Searches the current position of a game on every thread until the main search
+     * reaches its limits. The game itself is not modified.
+     *
+     * @param position the game whose position to search
+     * @param limits when to stop searching
+     * @return the main search's best move and score, with the nodes of all threads
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        table.newSearch();
+        AtomicBoolean stopSignal = new AtomicBoolean();
+        SearchLimits helperLimits = new SearchLimits(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        List<Future<SearchResult>> helperResults = new ArrayList<>(helperEngines.length);
+        for (int i = 0; i < helperEngines.length; i++) {
+            Engine helper = helperEngines[i];
+            int firstDepth = i % 2 == 0 ? 2 : 1;
+            helperResults.add(helpers.submit(() -> helper.search(position, helperLimits, firstDepth, stopSignal)));
+        }
+
+        SearchResult main;
+        try {
+            main = mainEngine.search(position, limits, 1, null);
+        }
+        finally {
+            stopSignal.set(true);
+        }
+
+        long[] threadNodes = new long[getThreadCount()];
+        threadNodes[0] = main.nodes();
+        long nodes = main.nodes();
+        for (int i = 0; i < helperResults.size(); i++) {
+            threadNodes[i + 1] = awaitHelper(helperResults.get(i)).nodes();
+            nodes += threadNodes[i + 1];
+        }
+        return new SearchResult(main.bestMove(), main.score(), main.depth(), nodes, main.timeMillis(), threadNodes);
+    }
+
+    /**
+     * Stops the helper threads. The search cannot be used afterward.
+     */
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    private static SearchResult awaitHelper(Future<SearchResult> result) {
+        try {
+            return result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while stopping search helpers.", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Search helper failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package chess.engine;
+
+/**
+ * When an {@link Engine} search should stop. The search stops at whichever limit it reaches
+ * first, even partway through its first iteration, and returns the best move it has
+ * searched in full by then.
+ *
+ * @param maxDepth the deepest iteration to search, in plies
+ * @param maxNodes the most positions to visit
+ * @param maxTimeMillis the most time to spend, in milliseconds
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxNodes < 1 || maxTimeMillis < 1) {
+            throw new IllegalArgumentException("Search limits must be positive.");
+        }
+    }
+
+    /**
+     * @param maxDepth the deepest iteration to search, in plies
+     * @return limits that stop only at the given depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxNodes the most positions to visit
+     * @return limits that stop only after the given number of positions
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(Integer.MAX_VALUE, maxNodes, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxTimeMillis the most time to spend, in milliseconds
+     * @return limits that stop only when time runs out
+     */
+    public static SearchLimits time(long maxTimeMillis) {
+        return new SearchLimits(Integer.MAX_VALUE, Long.MAX_VALUE, maxTimeMillis);
+    }
+}
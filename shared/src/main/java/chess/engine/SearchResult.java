@@ -0,0 +1,31 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of an {@link Engine} search.
+ *
+ * @param bestMove the move to play, or null if the team to move has no legal moves or the
+ *                 search stopped before it finished searching any move
+ * @param score the score of the best move for the team to move, in centipawns; mates are
+ *              reported as {@link Engine#MATE_SCORE} less the number of plies to mate
+ * @param depth the deepest iteration that finished
+ * @param nodes the number of positions visited
+ * @param timeMillis how long the search took, in milliseconds
+ * @param threadNodes the positions visited by each search thread, the calling thread first
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long timeMillis,
+                           long[] threadNodes) {
+
+    public SearchResult {
+        threadNodes = threadNodes.clone();
+    }
+
+    /**
+     * @return A copy of the positions visited by each search thread, the calling thread first
+     */
+    @Override
+    public long[] threadNodes() {
+        return threadNodes.clone();
+    }
+}
@@ -0,0 +1,172 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of search results keyed by {@link chess.ChessGame#getZobristKey()},
+ * which many search threads can share without locking.
+ * <p>
+ * Entries live in one preallocated {@code long[]}, two longs per entry: the packed data,
+ * and the position key XORed with that data. A reader accepts an entry only if XORing
+ * the two gives back its key, so an entry torn by two threads writing it at once reads
+ * as a miss instead of as wrong data. Each key maps to one slot, which is overwritten by
+ * a result searched at least as deeply, or by any result once the entry is from an
+ * earlier search.
+ * <p>
+ * The data long packs the best move, without its flags, in bits 0-14, the depth in
+ * bits 16-23, the {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND} flag in
+ * bits 24-25, the search generation in bits 26-31 and the score in the high 32 bits.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The score is the exact value of the position.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The search failed high, so the position is worth at least the score.
+     */
+    public static final int LOWER_BOUND = 2;
+
+    /**
+     * The search failed low, so the position is worth at most the score.
+     */
+    public static final int UPPER_BOUND = 3;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final int DEPTH_SHIFT = 16;
+    private static final int DEPTH_MASK = 0xFF;
+    private static final int BOUND_SHIFT = 24;
+    private static final int BOUND_MASK = 0x3;
+    private static final int GENERATION_SHIFT = 26;
+    private static final int GENERATION_MASK = 0x3F;
+    private static final int SCORE_SHIFT = 32;
+
+    private final long[] entries;
+    private final long indexMask;
+    private volatile int generation;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param megabytes the most memory the table may use; rounded down to a power of two entries
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least 1 MB.");
+        }
+        long entryCount = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY);
+        // one slot is two array elements, so the table can hold at most half the largest array
+        entryCount = Math.min(entryCount, 1L << 29);
+        entries = new long[(int) entryCount * 2];
+        indexMask = entryCount - 1;
+    }
+
+    /**
+     * Starts a new search, so that entries from earlier searches give way to new ones.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @return The number of entries the table holds.
+     */
+    public int capacity() {
+        return entries.length / 2;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position's Zobrist key
+     * @return the entry's packed data, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        int slot = slot(key);
+        long data = entries[slot + 1];
+        if ((entries[slot] ^ data) != key) {
+            return 0;
+        }
+        return data;
+    }
+
+    /**
+     * Records a search result, unless the slot holds a deeper result from the current search.
+     *
+     * @param key the position's Zobrist key
+     * @param move the best move found as a packed {@link chess.Move}, or 0
+     * @param score the score found
+     * @param depth the depth searched
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int slot = slot(key);
+        long oldData = entries[slot + 1];
+        boolean sameKey = (entries[slot] ^ oldData) == key;
+        int currentGeneration = generation;
+        if (!sameKey && oldData != 0 && generation(oldData) == currentGeneration && depth(oldData) > depth) {
+            return;
+        }
+        if (move == 0 && sameKey) {
+            // keep the best move from an earlier search of this position
+            move = move(oldData);
+        }
+        long data = (move & MOVE_MASK)
+                | ((long) (depth & DEPTH_MASK) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentGeneration << GENERATION_SHIFT)
+                | ((long) score << SCORE_SHIFT);
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+
+    /**
+     * @param data Packed entry data from {@link #probe}.
+     * @return The best move, as a packed {@link chess.Move} without flags, or 0.
+     */
+    public static int move(long data) {
+        return (int) data & MOVE_MASK;
+    }
+
+    /**
+     * @param data Packed entry data from {@link #probe}.
+     * @return The depth the position was searched to.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+    }
+
+    /**
+     * @param data Packed entry data from {@link #probe}.
+     * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    /**
+     * @param data Packed entry data from {@link #probe}.
+     * @return The score found.
+     */
+    public static int score(long data) {
+        return (int) (data >> SCORE_SHIFT);
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    private int slot(long key) {
+        return (int) (key & indexMask) << 1;
+    }
+}
@@ -2,11 +2,7 @@ package chess.piececalculators;
 
 import chess.ChessBoard;
 import chess.ChessGame;
-import chess.ChessMove;
-import chess.ChessPosition;
-
-import java.util.Collection;
-import java.util.ArrayList;
+import chess.bitboard.AttackTables;
 
 public class KingCalculator extends PieceCalculator {
     public KingCalculator(ChessGame.TeamColor pieceColor) {
@@ -14,23 +10,7 @@ public class KingCalculator extends PieceCalculator {
     }
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        ChessPosition[] possiblePositions = {
-            new ChessPosition(myPosition.getRow(), myPosition.getColumn() - 1),
-            new ChessPosition(myPosition.getRow(), myPosition.getColumn() + 1),
-            new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn()),
-            new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn()),
-            new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn() + 1),
-            new ChessPosition(myPosition.getRow() + 1, myPosition.getColumn() - 1),
-            new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn() + 1),
-            new ChessPosition(myPosition.getRow() - 1, myPosition.getColumn() - 1),
-        };
-        for (ChessPosition position : possiblePositions) {
-            if (checkOpenSpot(board, position, false) || checkOpenSpot(board, position, true)) {
-                moves.add(new ChessMove(myPosition, position, null));
-            }
-        }
-        return moves;
+    public long calculateTargets(ChessBoard board, int square) {
+        return AttackTables.kingAttacks(square) & ~board.getTeamMask(pieceColor);
     }
 }
@@ -1,9 +1,8 @@
 package chess.piececalculators;
 
 import chess.*;
-
-import java.util.Collection;
-import java.util.ArrayList;
+import chess.bitboard.AttackTables;
+import chess.bitboard.Bitboards;
 
 public class PawnCalculator extends PieceCalculator {
     /**
@@ -16,57 +15,46 @@ public class PawnCalculator extends PieceCalculator {
         ChessPiece.PieceType.BISHOP
     };
 
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
     public PawnCalculator(ChessGame.TeamColor pieceColor) {
         super(pieceColor);
     }
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition) {
+    public long calculateTargets(ChessBoard board, int square) {
         // get movement based on color
-        int direction = pieceColor == ChessGame.TeamColor.WHITE ? 1 : -1;
-        Collection<ChessMove> moves = new ArrayList<>();
-        ChessPosition moveOne = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn());
-        boolean canMoveOne = checkOpenSpot(board, moveOne, false);
-        if (canMoveOne) {
-            addPawnMove(moves, myPosition, moveOne);
-        }
+        boolean white = pieceColor == ChessGame.TeamColor.WHITE;
+        long empty = ~board.getOccupiedMask();
+        long from = 1L << square;
+        long moveOne = (white ? from << 8 : from >>> 8) & empty;
+        long targets = moveOne;
         // handle case where pawn has not moved yet
-        if (canMoveOne && (myPosition.getRow() == 2 && direction == 1 || myPosition.getRow() == 7 && direction == -1)) {
-            ChessPosition moveTwo = new ChessPosition(myPosition.getRow() + direction * 2, myPosition.getColumn());
-            if (checkOpenSpot(board, moveTwo, false)) {
-                addPawnMove(moves, myPosition, moveTwo);
-            }
+        int startRow = white ? 2 : 7;
+        if (moveOne != 0 && Bitboards.rowOf(square) == startRow) {
+            targets |= (white ? moveOne << 8 : moveOne >>> 8) & empty;
         }
         // capture cases
-        ChessPosition leftCapture = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() - 1);
-        ChessPosition rightCapture = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() + 1);
-        if (checkOpenSpot(board, leftCapture, true)) {
-            addPawnMove(moves, myPosition, leftCapture);
-        }
-        if (checkOpenSpot(board, rightCapture, true)) {
-            addPawnMove(moves, myPosition, rightCapture);
-        }
-        return moves;
+        ChessGame.TeamColor enemy = white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        targets |= AttackTables.pawnAttacks(pieceColor, square) & board.getTeamMask(enemy);
+        return targets;
     }
 
-    /**
-     * A helper method for handling a legal pawn position. Handles case where it's a promotion spot.
-     * @param moves The Collection of moves to add to.
-     * @param startPosition The starting position of the move.
-     * @param endPosition The ending position of the move.
-     */
-    private void addPawnMove(Collection<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition) {
-        if (
-                endPosition.getRow() == 8 &&
-                pieceColor == ChessGame.TeamColor.WHITE ||
-                endPosition.getRow() == 1 &&
-                pieceColor == ChessGame.TeamColor.BLACK
-        ) {
+    @Override
+    protected int addPackedMoves(ChessBoard board, int square, long targets, int[] moves, int count) {
+        long promotionRank = pieceColor == ChessGame.TeamColor.WHITE ? RANK_8 : RANK_1;
+        count = super.addPackedMoves(board, square, targets & ~promotionRank, moves, count);
+        long enemies = board.getOccupiedMask() & ~board.getTeamMask(pieceColor);
+        long promotions = targets & promotionRank;
+        while (promotions != 0) {
+            int target = Long.numberOfTrailingZeros(promotions);
+            int flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
             for (ChessPiece.PieceType pType : PROMOTION_TYPES) {
-                moves.add(new ChessMove(startPosition, endPosition, pType));
+                moves[count++] = Move.encode(square, target, pType, flags);
             }
-            return;
+            promotions &= promotions - 1;
         }
-        moves.add(new ChessMove(startPosition, endPosition, null));
+        return count;
     }
 }
@@ -5,70 +5,128 @@ import chess.ChessGame.TeamColor;
 import chess.ChessMove;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.Move;
+import chess.bitboard.Bitboards;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * Calculates the moves for one type and color of piece.
+ * <p>
+ * Calculators hold nothing but their piece color, so they are immutable and safe to
+ * share between threads. {@link #of} hands out one shared instance per type and color.
+ */
 public abstract class PieceCalculator {
+    /**
+     * A mask allowing every square as a destination.
+     */
+    public static final long ALL_SQUARES = -1L;
+
+    /**
+     * The shared calculators, indexed by color then piece type.
+     */
+    private static final PieceCalculator[][] CALCULATORS = new PieceCalculator[2][6];
+
+    static {
+        for (TeamColor color : TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                CALCULATORS[color.ordinal()][type.ordinal()] = switch (type) {
+                    case PAWN -> new PawnCalculator(color);
+                    case KNIGHT -> new KnightCalculator(color);
+                    case ROOK -> new RookCalculator(color);
+                    case BISHOP -> new BishopCalculator(color);
+                    case QUEEN -> new QueenCalculator(color);
+                    case KING -> new KingCalculator(color);
+                };
+            }
+        }
+    }
+
     protected final TeamColor pieceColor;
 
     public PieceCalculator(TeamColor pieceColor) {
         this.pieceColor = pieceColor;
     }
 
+    /**
+     * Gets the shared calculator for a type and color of piece.
+     * @param color The color of the piece.
+     * @param type The type of the piece.
+     * @return The calculator for that piece.
+     */
+    public static PieceCalculator of(TeamColor color, ChessPiece.PieceType type) {
+        return CALCULATORS[color.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * A method that will calculate the squares a type of piece can move to given a board and a starting square.
+     * @param board The board being played on.
+     * @param square The starting square, as a {@link Bitboards} index.
+     * @return A mask of destination squares.
+     */
+    public abstract long calculateTargets(ChessBoard board, int square);
+
     /**
      * A method that will calculate the possible moves for a type of piece given a board and a starting position.
      * @param board The board being played on.
      * @param myPosition The starting position.
      * @return A collection of possible moves.
      */
-    public abstract Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition);
+    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition) {
+        return calculateMoves(board, myPosition, ALL_SQUARES);
+    }
 
     /**
-     * A helper method to check if this piece can legally move to a spot.
+     * Calculates the possible moves for a piece, keeping only those that end on an allowed square.
      * @param board The board being played on.
-     * @param position The desired location.
-     * @param forCapture Whether this move is a capture move.
-     * @return Whether the piece can move here.
+     * @param myPosition The starting position.
+     * @param allowedTargets A mask of squares the piece may end on.
+     * @return A collection of possible moves.
      */
-    protected boolean checkOpenSpot(ChessBoard board, ChessPosition position, boolean forCapture) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        if (row < 1 || row > 8 || col < 1 || col > 8) {
-            return false;
+    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, long allowedTargets) {
+        int square = Bitboards.square(myPosition);
+        long targets = calculateTargets(board, square) & allowedTargets;
+        // room for a pawn promoting to every type on every target
+        int[] packedMoves = new int[Long.bitCount(targets) * 4];
+        int count = addPackedMoves(board, square, targets, packedMoves, 0);
+        Collection<ChessMove> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(Move.toChessMove(packedMoves[i]));
         }
-        ChessPiece atPosition = board.getPiece(position);
-        if (forCapture) {
-            return atPosition != null && atPosition.getTeamColor() != pieceColor;
-        }
-        return atPosition == null;
+        return moves;
     }
 
     /**
-     * A helper method to determine possible spots for pieces that can move continuously across the board.
+     * Generates the moves for a piece that end on an allowed square as packed {@link Move} ints.
      * @param board The board being played on.
-     * @param myPosition The starting position.
-     * @param moves The collection of ChessMove to add to.
-     * @param up 1, 0, -1, depending on direction of movement.
-     * @param right 1, 0, -1, depending on direction of movement.
+     * @param square The starting square.
+     * @param allowedTargets A mask of squares the piece may end on.
+     * @param moves The buffer to write moves into.
+     * @param count The number of moves already in the buffer.
+     * @return The number of moves in the buffer afterward.
      */
-    protected void loopMoveDirection (ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves, int up, int right) {
-        boolean canContinue = true;
-        ChessPosition currentPositionCheck = new ChessPosition(myPosition.getRow(), myPosition.getColumn());
-        while (canContinue) {
-            canContinue = false;
-            ChessPosition newPosition = new ChessPosition(currentPositionCheck.getRow() + up, currentPositionCheck.getColumn() + right);
-            // check normal move
-            if (checkOpenSpot(board, newPosition, false)) {
-                ChessMove move = new ChessMove(myPosition, newPosition, null);
-                moves.add(move);
-                canContinue = true;
-            }
-            // check capture move
-            else if (checkOpenSpot(board, newPosition, true)) {
-                ChessMove move = new ChessMove(myPosition, newPosition, null);
-                moves.add(move);
-            }
-            currentPositionCheck = newPosition;
+    public int generateMoves(ChessBoard board, int square, long allowedTargets, int[] moves, int count) {
+        return addPackedMoves(board, square, calculateTargets(board, square) & allowedTargets, moves, count);
+    }
+
+    /**
+     * A helper method that turns a mask of destination squares into packed moves.
+     * @param board The board being played on.
+     * @param square The starting square.
+     * @param targets A mask of squares this piece can move to.
+     * @param moves The buffer to write moves into.
+     * @param count The number of moves already in the buffer.
+     * @return The number of moves in the buffer afterward.
+     */
+    protected int addPackedMoves(ChessBoard board, int square, long targets, int[] moves, int count) {
+        long enemies = board.getOccupiedMask() & ~board.getTeamMask(pieceColor);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << target)) != 0 ? Move.CAPTURE : 0;
+            moves[count++] = Move.encode(square, target, null, flags);
+            targets &= targets - 1;
         }
+        return count;
     }
 }
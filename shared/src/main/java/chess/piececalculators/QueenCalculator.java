@@ -2,11 +2,7 @@ package chess.piececalculators;
 
 import chess.ChessBoard;
 import chess.ChessGame;
-import chess.ChessMove;
-import chess.ChessPosition;
-
-import java.util.Collection;
-import java.util.ArrayList;
+import chess.bitboard.MagicAttacks;
 
 public class QueenCalculator extends PieceCalculator {
     public QueenCalculator(ChessGame.TeamColor pieceColor) {
@@ -14,12 +10,7 @@ public class QueenCalculator extends PieceCalculator {
     }
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        BishopCalculator bishop = new BishopCalculator(this.pieceColor);
-        RookCalculator rook = new RookCalculator(this.pieceColor);
-        moves.addAll(bishop.calculateMoves(board, myPosition));
-        moves.addAll(rook.calculateMoves(board, myPosition));
-        return moves;
+    public long calculateTargets(ChessBoard board, int square) {
+        return MagicAttacks.queenAttacks(square, board.getOccupiedMask()) & ~board.getTeamMask(pieceColor);
     }
 }
@@ -2,11 +2,7 @@ package chess.piececalculators;
 
 import chess.ChessBoard;
 import chess.ChessGame.TeamColor;
-import chess.ChessMove;
-import chess.ChessPosition;
-
-import java.util.ArrayList;
-import java.util.Collection;
+import chess.bitboard.MagicAttacks;
 
 public class RookCalculator extends PieceCalculator {
     public RookCalculator(TeamColor pieceColor) {
@@ -14,16 +10,7 @@ public class RookCalculator extends PieceCalculator {
     }
 
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        // go up
-        loopMoveDirection(board, myPosition, moves, 1, 0);
-        // go left
-        loopMoveDirection(board, myPosition, moves, 0, -1);
-        // go right
-        loopMoveDirection(board, myPosition, moves, 0, 1);
-        // go down
-        loopMoveDirection(board, myPosition, moves, -1, 0);
-        return moves;
+    public long calculateTargets(ChessBoard board, int square) {
+        return MagicAttacks.rookAttacks(square, board.getOccupiedMask()) & ~board.getTeamMask(pieceColor);
     }
 }
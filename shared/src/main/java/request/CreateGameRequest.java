@@ -1,4 +1,11 @@
 package request;
 
-public record CreateGameRequest(String gameName) {
+/**
+ * @param gameName the name of the new game
+ * @param computerColor the color the computer plays, or null for a game between two players
+ */
+public record CreateGameRequest(String gameName, String computerColor) {
+    public CreateGameRequest(String gameName) {
+        this(gameName, null);
+    }
 }
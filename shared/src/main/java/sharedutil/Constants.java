@@ -5,6 +5,11 @@ import chess.ChessPiece;
 import java.util.Map;
 
 public class Constants {
+    /**
+     * The username that fills a seat played by the server's computer opponent.
+     */
+    public static final String COMPUTER_USERNAME = "Computer";
+
     public static final Map<Integer, String> POSITION_LETTER_MAP = Map.of(
         1, "a",
         2, "b",
@@ -0,0 +1,77 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that published snapshots match the game and do not change as it moves on.
+ */
+public class BoardSnapshotTest {
+
+    @Test
+    void testSnapshotMatchesGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        BoardSnapshot snapshot = game.getSnapshot();
+        Assertions.assertEquals(game, snapshot.toGame());
+        Assertions.assertEquals(game.getZobristKey(), snapshot.getZobristKey());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, snapshot.getTeamTurn());
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByLaterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        BoardSnapshot snapshot = game.getSnapshot();
+        ChessGame copy = snapshot.toGame();
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+
+        Assertions.assertNotSame(snapshot, game.getSnapshot());
+        Assertions.assertNull(snapshot.getPiece(new ChessPosition(5, 5)));
+        Assertions.assertEquals(copy, snapshot.toGame());
+        Assertions.assertEquals(game, game.getSnapshot().toGame());
+    }
+
+    @Test
+    void testWritersPublishSnapshots() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(game, game.getSnapshot().toGame());
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getSnapshot().getTeamTurn());
+
+        game.setBoard(ChessBoard.fromFen("4k3/8/8/8/8/8/8/4K3"));
+        Assertions.assertEquals(game, game.getSnapshot().toGame());
+
+        game.setGameOver();
+        Assertions.assertTrue(game.getSnapshot().getGameOver());
+    }
+
+    @Test
+    void testDoMoveIsPublishedExplicitly() {
+        ChessGame game = new ChessGame();
+        BoardSnapshot before = game.getSnapshot();
+        game.doMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertSame(before, game.getSnapshot());
+
+        BoardSnapshot after = game.publishSnapshot();
+        Assertions.assertSame(after, game.getSnapshot());
+        Assertions.assertEquals(game, after.toGame());
+    }
+
+    @Test
+    void testRestoredGamesHaveCurrentSnapshot() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertEquals(game, decoded.getSnapshot().toGame());
+
+        Gson gson = new Gson();
+        ChessGame parsed = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game, parsed.getSnapshot().toGame());
+    }
+}
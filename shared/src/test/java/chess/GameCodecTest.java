@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Checks that games survive a round trip through the binary codec.
+ */
+public class GameCodecTest {
+
+    @Test
+    void testStartingPositionRoundTrip() {
+        ChessGame game = new ChessGame();
+        byte[] data = GameCodec.encode(game);
+
+        Assertions.assertEquals(GameCodec.ENCODED_LENGTH, data.length);
+        Assertions.assertEquals(GameCodec.FORMAT_VERSION, data[0]);
+        ChessGame decoded = GameCodec.decode(data);
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+    }
+
+    @Test
+    void testPositionAndClocksRoundTrip() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b - - 17 42");
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(game.getZobristKey(), decoded.getZobristKey());
+    }
+
+    @Test
+    void testGameOverRoundTrip() {
+        ChessGame game = ChessGame.fromFen("7k/6Q1/6K1/8/8/8/8/8 b");
+        Assertions.assertTrue(game.getGameOver());
+        Assertions.assertTrue(GameCodec.decode(GameCodec.encode(game)).getGameOver());
+    }
+
+    @Test
+    void testIsGameOver() {
+        Assertions.assertFalse(GameCodec.isGameOver(GameCodec.encode(new ChessGame())));
+        Assertions.assertTrue(GameCodec.isGameOver(GameCodec.encode(ChessGame.fromFen("7k/6Q1/6K1/8/8/8/8/8 b"))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.isGameOver("{}".getBytes()));
+    }
+
+    @Test
+    void testRejectsJson() {
+        byte[] json = "{\"board\":{}}".getBytes();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(json));
+    }
+
+    @Test
+    void testRejectsTruncatedData() {
+        byte[] data = GameCodec.encode(new ChessGame());
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link ChessGame#evaluateStatus()} agrees with the separate check, checkmate
+ * and stalemate tests, and that its cached result follows the position.
+ */
+public class GameStatusTest {
+
+    private static void assertStatus(ChessGame.GameStatus expected, ChessGame game) {
+        ChessGame.TeamColor team = game.getTeamTurn();
+        Assertions.assertEquals(expected, game.evaluateStatus());
+        Assertions.assertEquals(expected == ChessGame.GameStatus.CHECK || expected == ChessGame.GameStatus.CHECKMATE,
+                game.isInCheck(team));
+        Assertions.assertEquals(expected == ChessGame.GameStatus.CHECKMATE, game.isInCheckmate(team));
+        Assertions.assertEquals(expected == ChessGame.GameStatus.STALEMATE, game.isInStalemate(team));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    @Test
+    void testInProgress() {
+        assertStatus(ChessGame.GameStatus.IN_PROGRESS, new ChessGame());
+    }
+
+    @Test
+    void testCheck() {
+        assertStatus(ChessGame.GameStatus.CHECK, ChessGame.fromFen("4k3/8/8/8/8/8/8/4R2K b"));
+    }
+
+    @Test
+    void testCheckmate() {
+        assertStatus(ChessGame.GameStatus.CHECKMATE, ChessGame.fromFen("7k/6Q1/6K1/8/8/8/8/8 b"));
+    }
+
+    @Test
+    void testStalemate() {
+        assertStatus(ChessGame.GameStatus.STALEMATE, ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b"));
+    }
+
+    @Test
+    void testCachedStatusFollowsPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        assertStatus(ChessGame.GameStatus.IN_PROGRESS, game);
+
+        ChessMove mate = move(8, 4, 4, 8);
+        game.makeMove(mate);
+        assertStatus(ChessGame.GameStatus.CHECKMATE, game);
+
+        game.undoMove();
+        assertStatus(ChessGame.GameStatus.IN_PROGRESS, game);
+
+        game.doMove(mate);
+        assertStatus(ChessGame.GameStatus.CHECKMATE, game);
+
+        // white is still to move, and only black is stalemated
+        game.setBoard(ChessBoard.fromFen("7k/5Q2/6K1/8/8/8/8/8"));
+        assertStatus(ChessGame.GameStatus.IN_PROGRESS, game);
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertStatus(ChessGame.GameStatus.STALEMATE, game);
+    }
+}
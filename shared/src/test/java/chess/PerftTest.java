@@ -0,0 +1,144 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perft counts for the standard reference positions. Castling and en passant are not
+ * part of these rules, so counts that would include them differ from the published
+ * values and were taken from the original make/test move generator instead.
+ */
+public class PerftTest {
+
+    private static ChessGame loadGame(String boardText) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        return game;
+    }
+
+    private static void assertPerft(ChessGame game, long... expectedCounts) {
+        Perft perft = new Perft(game);
+        for (int depth = 1; depth <= expectedCounts.length; depth++) {
+            assertEquals(expectedCounts[depth - 1], perft.perft(depth), "Wrong node count at depth " + depth);
+        }
+    }
+
+    @Test
+    void testStartingPosition() {
+        assertPerft(new ChessGame(), 20, 400, 8902, 197281);
+    }
+
+    @Test
+    void testKiwipete() {
+        assertPerft(loadGame("""
+            |r| | | |k| | |r|
+            |p| |p|p|q|p|b| |
+            |b|n| | |p|n|p| |
+            | | | |P|N| | | |
+            | |p| | |P| | | |
+            | | |N| | |Q| |p|
+            |P|P|P|B|B|P|P|P|
+            |R| | | |K| | |R|
+            """), 46, 1865, 86585);
+    }
+
+    @Test
+    void testRookEndgame() {
+        assertPerft(loadGame("""
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """), 14, 191, 2810, 43087);
+    }
+
+    @Test
+    void testPromotions() {
+        assertPerft(loadGame("""
+            |r| | | |k| | |r|
+            |P|p|p|p| |p|p|p|
+            | |b| | | |n|b|N|
+            |n|P| | | | | | |
+            |B|B|P| |P| | | |
+            |q| | | | |N| | |
+            |P|p| |P| | |P|P|
+            |R| | |Q| |R|K| |
+            """), 6, 258, 9217);
+    }
+
+    @Test
+    void testDiscoveredChecks() {
+        assertPerft(loadGame("""
+            |r|n|b|q| |k| |r|
+            |p|p| |P|b|p|p|p|
+            | | |p| | | | | |
+            | | | | | | | | |
+            | | |B| | | | | |
+            | | | | | | | | |
+            |P|P|P| |N|n|P|P|
+            |R|N|B|Q|K| | |R|
+            """), 43, 1452, 59922);
+    }
+
+    @Test
+    void testDivideSumsToPerft() {
+        Perft perft = new Perft(new ChessGame());
+        Map<ChessMove, Long> divide = perft.perftDivide(3);
+        assertEquals(20, divide.size());
+        assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(440, divide.get(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null)));
+    }
+
+    @Test
+    void testInvalidDepths() {
+        Perft perft = new Perft(new ChessGame());
+        assertEquals(1, perft.perft(0));
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(-1));
+        assertThrows(IllegalArgumentException.class, () -> perft.perftDivide(0));
+    }
+
+    @Test
+    void testParallelInvalidDepths() {
+        ParallelPerft perft = new ParallelPerft(new ChessGame(), 2, 0);
+        assertEquals(1, perft.perft(0));
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(-1));
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(64));
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        assertEquals(197281, new ParallelPerft(new ChessGame(), 4, 16).perft(4));
+        assertEquals(4865351, new ParallelPerft(new ChessGame(), 4, 16).perft(5));
+        assertEquals(197281, new ParallelPerft(new ChessGame(), 2, 0).perft(4), "Counts should not depend on the cache");
+    }
+
+    @Test
+    void testParallelKiwipete() {
+        ChessGame game = loadGame("""
+            |r| | | |k| | |r|
+            |p| |p|p|q|p|b| |
+            |b|n| | |p|n|p| |
+            | | | |P|N| | | |
+            | |p| | |P| | | |
+            | | |N| | |Q| |p|
+            |P|P|P|B|B|P|P|P|
+            |R| | | |K| | |R|
+            """);
+        assertEquals(3499358, new ParallelPerft(game, 4, 16).perft(4));
+    }
+
+    @Test
+    void testParallelMatchesSequentialFromFen() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b - - 12 30");
+        assertEquals(new Perft(game).perft(4), new ParallelPerft(game, 2, 16).perft(4));
+    }
+}
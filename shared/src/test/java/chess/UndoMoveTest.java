@@ -0,0 +1,122 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+/**
+ * Checks that {@link ChessGame#undoMove()} restores everything {@link ChessGame#doMove} changes.
+ */
+public class UndoMoveTest {
+
+    @Test
+    void testUndoRestoresCaptureAndTurn() throws CloneNotSupportedException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        ChessBoard before = (ChessBoard) game.getBoard().clone();
+        long keyBefore = game.getZobristKey();
+
+        game.doMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertNotEquals(keyBefore, game.getZobristKey());
+
+        game.undoMove();
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(keyBefore, game.getZobristKey());
+        Assertions.assertFalse(game.canUndo());
+    }
+
+    @Test
+    void testUndoPromotion() throws CloneNotSupportedException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | |r| |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        ChessBoard before = (ChessBoard) game.getBoard().clone();
+
+        game.doMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 3), ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT),
+                game.getBoard().getPiece(new ChessPosition(8, 3)));
+
+        game.undoMove();
+        Assertions.assertEquals(before, game.getBoard());
+    }
+
+    @Test
+    void testUndoRestoresGameOver() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        Assertions.assertTrue(game.getGameOver());
+
+        game.undoMove();
+        Assertions.assertFalse(game.getGameOver());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.evaluateStatus());
+    }
+
+    @Test
+    void testUndoWithNoMoves() {
+        Assertions.assertThrows(IllegalStateException.class, () -> new ChessGame().undoMove());
+    }
+
+    @Test
+    void testAttackMasksFollowMoves() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w");
+        int[] moves = new int[Move.MAX_MOVES];
+        int[] replies = new int[Move.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            assertAttackMasksCurrent(game.getBoard());
+            int replyCount = game.generateMoves(replies);
+            for (int j = 0; j < replyCount; j++) {
+                game.doMove(replies[j]);
+                assertAttackMasksCurrent(game.getBoard());
+                game.undoMove();
+                assertAttackMasksCurrent(game.getBoard());
+            }
+            game.undoMove();
+            assertAttackMasksCurrent(game.getBoard());
+        }
+    }
+
+    @Test
+    void testAttackMasksFollowAddPiece() {
+        ChessBoard board = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        Random random = new Random(240);
+        for (int i = 0; i < 2000; i++) {
+            // clear squares as often as filling them, so slider lines both open and close
+            int pieceIndex = random.nextInt(24);
+            board.addPiece(random.nextInt(64), pieceIndex < 12 ? ChessPiece.of(pieceIndex) : null);
+            assertAttackMasksCurrent(board);
+        }
+    }
+
+    private static void assertAttackMasksCurrent(ChessBoard board) {
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            Assertions.assertEquals(board.getAttackedSquares(team, board.getOccupiedMask()), board.getAttackedSquares(team));
+        }
+    }
+}
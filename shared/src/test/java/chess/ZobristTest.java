@@ -0,0 +1,99 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the incrementally updated Zobrist key always matches a key computed from
+ * scratch, since the transposition table and perft cache rely on it.
+ */
+public class ZobristTest {
+
+    private static long keyFromScratch(ChessGame game) {
+        long key = 0;
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                key ^= Zobrist.pieceKey(piece, square);
+            }
+        }
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+    private static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+        Assertions.assertEquals(keyFromScratch(game), game.getZobristKey());
+    }
+
+    @Test
+    void testTranspositionsShareKey() throws InvalidMoveException {
+        ChessGame knightsFirst = new ChessGame();
+        move(knightsFirst, 1, 2, 3, 3);
+        move(knightsFirst, 8, 2, 6, 3);
+        move(knightsFirst, 1, 7, 3, 6);
+        move(knightsFirst, 8, 7, 6, 6);
+
+        ChessGame kingsideFirst = new ChessGame();
+        move(kingsideFirst, 1, 7, 3, 6);
+        move(kingsideFirst, 8, 7, 6, 6);
+        move(kingsideFirst, 1, 2, 3, 3);
+        move(kingsideFirst, 8, 2, 6, 3);
+
+        Assertions.assertEquals(knightsFirst, kingsideFirst);
+        Assertions.assertEquals(knightsFirst.getZobristKey(), kingsideFirst.getZobristKey());
+    }
+
+    @Test
+    void testMadeMovesMatchBuiltBoard() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 2, 5, 4, 5);
+        move(game, 7, 4, 5, 4);
+        // capture, so a piece leaves the board
+        move(game, 4, 5, 5, 4);
+
+        ChessBoard built = new ChessBoard();
+        built.resetBoard();
+        built.addPiece(new ChessPosition(2, 5), null);
+        built.addPiece(new ChessPosition(7, 4), null);
+        built.addPiece(new ChessPosition(5, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        ChessGame builtGame = new ChessGame();
+        builtGame.setBoard(built);
+        builtGame.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(keyFromScratch(builtGame), builtGame.getZobristKey());
+        Assertions.assertEquals(builtGame.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    void testUndoRestoresKey() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w");
+        long startKey = game.getZobristKey();
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            game.doMove(moves[i]);
+            Assertions.assertEquals(keyFromScratch(game), game.getZobristKey());
+            game.undoMove();
+            Assertions.assertEquals(startKey, game.getZobristKey());
+        }
+    }
+
+    @Test
+    void testKeySurvivesGsonRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 2, 5, 4, 5);
+        move(game, 7, 5, 5, 5);
+        move(game, 1, 4, 5, 8);
+
+        Gson gson = new Gson();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey());
+        Assertions.assertEquals(keyFromScratch(copy), copy.getZobristKey());
+    }
+}
@@ -0,0 +1,133 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks that the engine finds forced wins and respects its search limits.
+ */
+public class EngineTest {
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor teamTurn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(teamTurn);
+        return game;
+    }
+
+    @Test
+    void testFindsMateInOne() {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        Assertions.assertEquals(Engine.MATE_SCORE - 1, result.score());
+    }
+
+    @Test
+    void testWinsHangingQueen() {
+        ChessGame game = loadGame("""
+                |r|n|b| |k|b|n|r|
+                |p|p|p|p| |p|p|p|
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | |P| | | |q|
+                | | | | | |N| | |
+                |P|P|P| |P|P|P|P|
+                |R|N|B|Q|K|B| |R|
+                """, ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(3, 6), new ChessPosition(4, 8), null), result.bestMove());
+    }
+
+    @Test
+    void testPromotes() {
+        ChessGame game = loadGame("""
+                | | | | | | | | |
+                | | |P| | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 3), new ChessPosition(8, 3), ChessPiece.PieceType.QUEEN),
+                result.bestMove());
+    }
+
+    @Test
+    void testNodeLimitStillReturnsMove() {
+        ChessGame game = new ChessGame();
+
+        SearchResult result = new Engine().search(game, SearchLimits.nodes(5000));
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        Assertions.assertEquals(new ChessGame(), game, "Searching should not change the game");
+    }
+
+    @Test
+    void testNoMovesWhenMated() {
+        ChessGame game = loadGame("""
+                |R| | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.BLACK);
+
+        SearchResult result = new Engine().search(game, SearchLimits.depth(2));
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Engine.MATE_SCORE, result.score());
+    }
+
+    @Test
+    void testLimitsStopFirstIteration() {
+        // a first iteration this deep visits far more positions than the limit
+        SearchResult result = new Engine().search(new ChessGame(), SearchLimits.nodes(20000), 5, null);
+
+        Assertions.assertEquals(0, result.depth());
+        Assertions.assertTrue(result.nodes() < 25000);
+        // root moves that finished before the limit still give a move to play
+        ChessMove move = result.bestMove();
+        Assertions.assertNotNull(move);
+        Assertions.assertTrue(new ChessGame().validMoves(move.getStartPosition()).contains(move));
+    }
+
+    @Test
+    void testStopSignalStopsFirstIteration() {
+        SearchResult result = new Engine().search(new ChessGame(), SearchLimits.depth(20), 20, new AtomicBoolean(true));
+
+        Assertions.assertEquals(0, result.depth());
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() < 10000);
+    }
+}
@@ -0,0 +1,55 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Arrays;
+
+/**
+ * Checks that a Lazy SMP search agrees with a single engine and reports every thread.
+ */
+public class ParallelSearchTest {
+
+    @Test
+    void testFindsMateInOne() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        try (ParallelSearch search = new ParallelSearch(4, 1)) {
+            SearchResult result = search.search(game, SearchLimits.depth(4));
+
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+            Assertions.assertEquals(Engine.MATE_SCORE - 1, result.score());
+        }
+    }
+
+    @Test
+    void testReportsNodesPerThread() {
+        try (ParallelSearch search = new ParallelSearch(3, 1)) {
+            SearchResult result = search.search(new ChessGame(), SearchLimits.depth(5));
+
+            Assertions.assertEquals(3, result.threadNodes().length);
+            Assertions.assertTrue(result.threadNodes()[0] > 0);
+            Assertions.assertEquals(result.nodes(), Arrays.stream(result.threadNodes()).sum());
+            Assertions.assertEquals(5, result.depth());
+            Assertions.assertNotNull(result.bestMove());
+
+            result.threadNodes()[0] = -1;
+            Assertions.assertTrue(result.threadNodes()[0] > 0, "The result should not expose its array");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the packing and replacement rules of the transposition table.
+ */
+public class TranspositionTableTest {
+
+    private static final int MATE_IN_THREE = Engine.MATE_SCORE - 5;
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        table.store(key, 1234, -MATE_IN_THREE, 7, TranspositionTable.LOWER_BOUND);
+
+        long entry = table.probe(key);
+        Assertions.assertEquals(1234, TranspositionTable.move(entry));
+        Assertions.assertEquals(-MATE_IN_THREE, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0, table.probe(key + 1));
+    }
+
+    @Test
+    void testDeeperEntryIsKept() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+        long otherKey = key + table.capacity();
+        table.store(key, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(otherKey, 2, 20, 3, TranspositionTable.EXACT);
+
+        Assertions.assertEquals(10, TranspositionTable.score(table.probe(key)));
+        Assertions.assertEquals(0, table.probe(otherKey));
+
+        table.newSearch();
+        table.store(otherKey, 2, 20, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(key), "Entries from an earlier search should be replaced");
+        Assertions.assertEquals(20, TranspositionTable.score(table.probe(otherKey)));
+    }
+
+    @Test
+    void testTornEntryIsAMiss() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 7;
+        long otherKey = key + table.capacity();
+        table.store(key, 1, 10, 2, TranspositionTable.EXACT);
+        table.newSearch();
+        table.store(otherKey, 2, 20, 2, TranspositionTable.EXACT);
+
+        Assertions.assertEquals(0, table.probe(key));
+    }
+}